@@ -0,0 +1,62 @@
+package ru.mail.polis.homework.collections;
+
+import java.util.Iterator;
+
+/**
+ * Приближенный счетчик популярности с фиксированным объемом памяти.
+ * Самые популярные объекты отслеживаются алгоритмом Space-Saving ({@link BucketPopularityCounter} с емкостью
+ * ceil(1 / epsilon)), популярность любого объекта оценивается через {@link CountMinSketch}.
+ *
+ * Гарантии (N - общее количество увеличений):
+ * - getPopularity никогда не меньше настоящей популярности и с вероятностью не меньше 1 - delta
+ *   превышает ее не больше чем на epsilon * N;
+ * - любой объект с популярностью больше epsilon * N есть в итераторе;
+ * - популярность getMostPopular отличается от максимальной не больше чем на epsilon * N.
+ *
+ * @param <T> - тип объекта
+ */
+class ApproximatePopularityCounter<T> implements PopularityCounter<T> {
+
+    private final BucketPopularityCounter<T> heavyHitters;
+    private final CountMinSketch sketch;
+
+    ApproximatePopularityCounter(double epsilon, double delta) {
+        this.sketch = new CountMinSketch(epsilon, delta);
+        this.heavyHitters = new BucketPopularityCounter<>((int) Math.ceil(1 / epsilon));
+    }
+
+    @Override
+    public void increment(T item) {
+        if (item == null) {
+            return;
+        }
+        sketch.increment(item);
+        heavyHitters.increment(item);
+    }
+
+    /**
+     * Обе структуры только завышают популярность, поэтому берем меньшую из оценок.
+     */
+    @Override
+    public int getPopularity(T item) {
+        if (item == null) {
+            return 0;
+        }
+        int estimate = sketch.estimate(item);
+        int tracked = heavyHitters.getPopularity(item);
+        return tracked == 0 ? estimate : Math.min(estimate, tracked);
+    }
+
+    @Override
+    public T getMostPopular() {
+        return heavyHitters.getMostPopular();
+    }
+
+    /**
+     * Итератор только по отслеживаемым популярным объектам
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return heavyHitters.iterator();
+    }
+}
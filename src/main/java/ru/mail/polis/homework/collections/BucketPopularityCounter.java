@@ -0,0 +1,293 @@
+package ru.mail.polis.homework.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Счетчик популярности объектов.
+ * Объекты хранятся в двусвязном списке корзин, упорядоченных по возрастанию популярности,
+ * в каждой корзине лежат все объекты с одинаковым количеством использований.
+ * Благодаря этому увеличение счетчика, получение популярности и самого популярного объекта работают за О(1),
+ * без пересчета по всем счетчикам.
+ *
+ * Если задана емкость, то счетчик работает по алгоритму Space-Saving: хранится не больше capacity объектов,
+ * новый объект вытесняет наименее популярный и получает его счетчик + 1. Тогда популярность завышается
+ * не больше чем на N / capacity (N - общее количество увеличений), а любой объект с популярностью
+ * больше N / capacity гарантированно остается в счетчике. Унаследованный счетчик запоминается как ошибка
+ * нового объекта, поэтому его настоящая популярность лежит в [getCount - getError, getCount].
+ * Счетчики long, getPopularity ограничивает их сверху Integer.MAX_VALUE.
+ *
+ * @param <T> - тип объекта
+ */
+public class BucketPopularityCounter<T> implements PopularityCounter<T> {
+
+    private final Map<T, Bucket<T>> buckets = new HashMap<>();
+    /**
+     * Ненулевые ошибки объектов, которые вытеснили другие объекты
+     */
+    private final Map<T, Long> errors = new HashMap<>();
+    private final int capacity;
+
+    /**
+     * Корзина с минимальной популярностью
+     */
+    private Bucket<T> head;
+
+    /**
+     * Корзина с максимальной популярностью
+     */
+    private Bucket<T> tail;
+
+    /**
+     * Количество изменений счетчиков, нужно итератору, чтобы заметить изменения во время обхода
+     */
+    private int modCount;
+
+    /**
+     * Точный счетчик без ограничения по количеству объектов
+     */
+    public BucketPopularityCounter() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param capacity - максимальное количество отслеживаемых объектов
+     */
+    public BucketPopularityCounter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity = " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Увеличивает популярность объекта на 1. null не учитывается.
+     * Сложность - О(1)
+     */
+    @Override
+    public void increment(T item) {
+        if (item == null) {
+            return;
+        }
+        Bucket<T> current = buckets.get(item);
+        if (current == null && buckets.size() >= capacity) {
+            current = replaceLeastPopular(item);
+        }
+        Bucket<T> next;
+        if (current == null) {
+            next = head != null && head.count == 1 ? head : linkAfter(null, 1);
+        } else {
+            next = current.next != null && current.next.count == current.count + 1
+                    ? current.next
+                    : linkAfter(current, current.count + 1);
+            current.items.remove(item);
+            if (current.items.isEmpty()) {
+                unlink(current);
+            }
+        }
+        next.items.add(item);
+        buckets.put(item, next);
+        modCount++;
+    }
+
+    /**
+     * Уменьшает популярность объекта на 1, объект с нулевой популярностью удаляется из счетчика.
+     * Сложность - О(1)
+     */
+    public void decrement(T item) {
+        Bucket<T> current = buckets.get(item);
+        if (current == null) {
+            return;
+        }
+        current.items.remove(item);
+        if (current.count == 1) {
+            buckets.remove(item);
+            errors.remove(item);
+        } else {
+            Bucket<T> prev = current.prev != null && current.prev.count == current.count - 1
+                    ? current.prev
+                    : linkAfter(current.prev, current.count - 1);
+            prev.items.add(item);
+            buckets.put(item, prev);
+        }
+        if (current.items.isEmpty()) {
+            unlink(current);
+        }
+        modCount++;
+    }
+
+    /**
+     * Сложность - О(1)
+     */
+    @Override
+    public int getPopularity(T item) {
+        return (int) Math.min(Integer.MAX_VALUE, getCount(item));
+    }
+
+    /**
+     * Популярность объекта, 0 - если объект не отслеживается.
+     * Сложность - О(1)
+     */
+    public long getCount(T item) {
+        Bucket<T> bucket = buckets.get(item);
+        return bucket == null ? 0 : bucket.count;
+    }
+
+    /**
+     * Насколько популярность объекта может быть завышена из-за вытеснения, 0 - для точного счетчика
+     */
+    public long getError(T item) {
+        return errors.getOrDefault(item, 0L);
+    }
+
+    /**
+     * Верхняя граница ошибки любого объекта: наименьшая популярность, если все места заняты.
+     * Популярность неотслеживаемого объекта тоже не больше этой границы.
+     */
+    public long getErrorBound() {
+        return buckets.size() < capacity || head == null ? 0 : head.count;
+    }
+
+    /**
+     * Количество отслеживаемых объектов
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * k самых популярных объектов в порядке убывания популярности, при равной популярности - в порядке ties.
+     * Для k <= 0 - пустой список.
+     * Сложность - О(k + размер последней нужной корзины * log ее размера)
+     */
+    public List<T> top(int k, Comparator<? super T> ties) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>(Math.min(k, buckets.size()));
+        for (Bucket<T> bucket = tail; bucket != null && result.size() < k; bucket = bucket.prev) {
+            List<T> items = new ArrayList<>(bucket.items);
+            items.sort(ties);
+            result.addAll(items.subList(0, Math.min(items.size(), k - result.size())));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает самый популярный объект, среди равных - тот, что первым набрал такую популярность.
+     * Сложность - О(1)
+     */
+    @Override
+    public T getMostPopular() {
+        return tail == null ? null : tail.items.iterator().next();
+    }
+
+    /**
+     * Ленивый итератор по объектам от самых НЕ популярных к самым популярным.
+     * Итератор идет по списку корзин и ничего не копирует и не сортирует: первый next() стоит О(1),
+     * дополнительная память - О(1).
+     * Итератор fail-fast: если после его создания изменилась популярность любого объекта,
+     * то hasNext() и next() бросают ConcurrentModificationException.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new PopularityIterator();
+    }
+
+    /**
+     * Вытесняет наименее популярный объект, новый объект занимает его место в корзине,
+     * а популярность корзины становится ошибкой нового объекта
+     */
+    private Bucket<T> replaceLeastPopular(T item) {
+        Iterator<T> least = head.items.iterator();
+        T evicted = least.next();
+        buckets.remove(evicted);
+        errors.remove(evicted);
+        least.remove();
+        errors.put(item, head.count);
+        head.items.add(item);
+        buckets.put(item, head);
+        return head;
+    }
+
+    private Bucket<T> linkAfter(Bucket<T> prev, long count) {
+        Bucket<T> bucket = new Bucket<>(count);
+        Bucket<T> next = prev == null ? head : prev.next;
+        bucket.prev = prev;
+        bucket.next = next;
+        if (prev == null) {
+            head = bucket;
+        } else {
+            prev.next = bucket;
+        }
+        if (next == null) {
+            tail = bucket;
+        } else {
+            next.prev = bucket;
+        }
+        return bucket;
+    }
+
+    private void unlink(Bucket<T> bucket) {
+        if (bucket.prev == null) {
+            head = bucket.next;
+        } else {
+            bucket.prev.next = bucket.next;
+        }
+        if (bucket.next == null) {
+            tail = bucket.prev;
+        } else {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    private static class Bucket<T> {
+        private final long count;
+        private final Set<T> items = new LinkedHashSet<>();
+        private Bucket<T> prev;
+        private Bucket<T> next;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    private class PopularityIterator implements Iterator<T> {
+        private Bucket<T> bucket = head;
+        private Iterator<T> items = bucket == null ? null : bucket.items.iterator();
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            while (items != null && !items.hasNext()) {
+                bucket = bucket.next;
+                items = bucket == null ? null : bucket.items.iterator();
+            }
+            return items != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items.next();
+        }
+    }
+}
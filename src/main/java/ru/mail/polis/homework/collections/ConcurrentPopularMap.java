@@ -0,0 +1,30 @@
+package ru.mail.polis.homework.collections;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Потокобезопасный вариант {@link PopularMap} с тем же набором методов популярности.
+ * Популярность считается по тем же правилам, что и в PopularMap.
+ *
+ * Операции мапы делегируются в ConcurrentMap, счетчики популярности - {@link ConcurrentPopularityCounter}
+ * с LongAdder на каждый ключ/значение, поэтому чтения и увеличения счетчиков масштабируются по ядрам
+ * без общей блокировки. getPopularKey/getPopularValue возвращают лидера без блокировок, ответ может
+ * немного отставать от операций, которые выполняются в других потоках в тот же момент.
+ * popularIterator обходит снимок значений, изменения мапы во время обхода на него не влияют.
+ *
+ * @param <K> - тип ключа
+ * @param <V> - тип значения
+ */
+public class ConcurrentPopularMap<K, V> extends PopularMap<K, V> {
+
+    public ConcurrentPopularMap() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    public ConcurrentPopularMap(ConcurrentMap<K, V> map) {
+        super(map, new ConcurrentPopularityCounter<>(), new ConcurrentPopularityCounter<>());
+    }
+}
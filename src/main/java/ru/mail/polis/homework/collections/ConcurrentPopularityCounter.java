@@ -0,0 +1,146 @@
+package ru.mail.polis.homework.collections;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасный счетчик популярности объектов.
+ * Каждый счетчик - это LongAdder, поэтому одновременные увеличения из разных потоков не конкурируют
+ * за одну ячейку памяти. Самый популярный объект хранится отдельно вместе со ссылкой на свой счетчик.
+ * Увеличение текущего лидера - самого горячего объекта - это только LongAdder.increment и чтение ссылки
+ * на лидера, без подсчета суммы, аллокаций и CAS. Остальные объекты сравнивают свою сумму с суммой лидера
+ * и меняют лидера через CAS, только когда действительно его обогнали, то есть редко. Глобальных блокировок нет.
+ *
+ * Используется в {@link ConcurrentPopularMap} и для популярности отправителей и получателей
+ * в {@link ru.mail.polis.homework.collections.mail.MailService}.
+ *
+ * @param <T> - тип объекта
+ */
+public class ConcurrentPopularityCounter<T> implements PopularityCounter<T> {
+
+    private final Map<T, LongAdder> counters = new ConcurrentHashMap<>();
+    private final AtomicReference<Leader<T>> leader = new AtomicReference<>();
+    private final LongAdder leaderChanges = new LongAdder();
+
+    /**
+     * Увеличивает популярность объекта на 1. null не учитывается.
+     */
+    @Override
+    public void increment(T item) {
+        if (item == null) {
+            return;
+        }
+        LongAdder counter = counters.get(item);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(item, k -> new LongAdder());
+        }
+        counter.increment();
+        Leader<T> current = leader.get();
+        if (current == null || current.counter != counter) {
+            promote(item, counter);
+        }
+    }
+
+    /**
+     * Делает объект лидером, если его счетчик больше счетчика лидера. Если лидер сменился, то
+     * сместивший его поток еще раз сравнивает с ним прежнего лидера: его увеличение могло случиться
+     * одновременно со сменой и не увидеть ее. Увеличение лидера сначала пишет счетчик, а потом читает
+     * лидера, а смена - наоборот, поэтому хотя бы одна из сторон увидит другую.
+     */
+    private void promote(T item, LongAdder counter) {
+        while (true) {
+            Leader<T> current = leader.get();
+            if (current != null && (current.counter == counter || !isAhead(counter, current))) {
+                return;
+            }
+            if (leader.compareAndSet(current, new Leader<>(item, counter, counter.sum()))) {
+                leaderChanges.increment();
+                if (current == null) {
+                    return;
+                }
+                item = current.item;
+                counter = current.counter;
+            }
+        }
+    }
+
+    /**
+     * Счетчик лидера только растет, поэтому, пока counter не больше запомненного при смене значения,
+     * горячий счетчик лидера можно не читать.
+     */
+    private static boolean isAhead(LongAdder counter, Leader<?> current) {
+        long count = counter.sum();
+        return count > current.count && count > current.counter.sum();
+    }
+
+    @Override
+    public int getPopularity(T item) {
+        LongAdder counter = counters.get(item);
+        return counter == null ? 0 : (int) counter.sum();
+    }
+
+    /**
+     * Возвращает объект, который был самым популярным на момент последней смены лидера.
+     * Ответ может немного отставать от счетчиков, которые прямо сейчас увеличиваются в других потоках,
+     * но после того, как все увеличения завершились, он точный.
+     * Сложность - О(1)
+     */
+    @Override
+    public T getMostPopular() {
+        Leader<T> current = leader.get();
+        return current == null ? null : current.item;
+    }
+
+    /**
+     * Сколько раз менялся лидер
+     */
+    long getLeaderChanges() {
+        return leaderChanges.sum();
+    }
+
+    /**
+     * Итератор по снимку счетчиков от самых НЕ популярных к самым популярным.
+     * Снимок слабо согласован: одновременные изменения могут в него как попасть, так и нет.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        List<Map.Entry<T, Long>> snapshot = new ArrayList<>(counters.size());
+        counters.forEach((item, counter) ->
+                snapshot.add(new AbstractMap.SimpleImmutableEntry<>(item, counter.sum())));
+        snapshot.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+        Iterator<Map.Entry<T, Long>> entries = snapshot.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return entries.next().getKey();
+            }
+        };
+    }
+
+    private static class Leader<T> {
+        private final T item;
+        private final LongAdder counter;
+        /**
+         * Значение счетчика при смене лидера, дальше он только растет
+         */
+        private final long count;
+
+        Leader(T item, LongAdder counter, long count) {
+            this.item = item;
+            this.counter = counter;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.mail.polis.homework.collections;
+
+import java.util.SplittableRandom;
+
+/**
+ * Count-Min Sketch - оценка количества появлений объектов в памяти фиксированного размера.
+ * Таблица depth x width счетчиков, каждая строка - своя хеш-функция. Оценка - минимум по строкам,
+ * она никогда не меньше настоящего значения и с вероятностью не меньше 1 - delta
+ * превышает его не больше чем на epsilon * N, где N - общее количество добавлений.
+ *
+ * Оценка верна, только если строки независимы, поэтому столбец в каждой строке - это перемешанный
+ * 64-битный хеш объекта со своим случайным зерном строки. Для строк (CharSequence) и Long 64-битный хеш
+ * считается по самому значению, так что объекты с одинаковым hashCode (например "Aa" и "BB") в разных
+ * строках расходятся. Для остальных объектов доступен только hashCode, и объекты с одинаковым hashCode
+ * неизбежно совпадают во всех строках.
+ */
+class CountMinSketch {
+
+    /**
+     * Зерна строк фиксированы, чтобы оценки были воспроизводимыми
+     */
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private final int width;
+    private final int[][] table;
+    private final long[] seeds;
+
+    /**
+     * @param epsilon - допустимая ошибка относительно общего количества добавлений
+     * @param delta   - вероятность превысить эту ошибку
+     */
+    CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon = " + epsilon + ", delta = " + delta);
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        this.table = new int[depth][width];
+        this.seeds = new long[depth];
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    public void increment(Object item) {
+        long hash = hash(item);
+        for (int i = 0; i < table.length; i++) {
+            table[i][index(hash, i)]++;
+        }
+    }
+
+    public int estimate(Object item) {
+        long hash = hash(item);
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < table.length; i++) {
+            min = Math.min(min, table[i][index(hash, i)]);
+        }
+        return min;
+    }
+
+    private int index(long hash, int row) {
+        return (int) Long.remainderUnsigned(mix(hash ^ seeds[row]), width);
+    }
+
+    private static long hash(Object item) {
+        if (item instanceof CharSequence) {
+            CharSequence chars = (CharSequence) item;
+            long hash = chars.length();
+            for (int i = 0; i < chars.length(); i++) {
+                hash = (hash + chars.charAt(i)) * 0x9E3779B97F4A7C15L;
+            }
+            return hash;
+        }
+        if (item instanceof Long) {
+            return (Long) item;
+        }
+        return item.hashCode();
+    }
+
+    /**
+     * Финальное перемешивание SplitMix64: каждый бит входа влияет на все биты результата
+     */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -1,6 +1,8 @@
 package ru.mail.polis.homework.collections;
 
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -34,114 +36,203 @@ import java.util.Set;
 public class PopularMap<K, V> implements Map<K, V> {
 
     private final Map<K, V> map;
+    private final PopularityCounter<K> keyPopularity;
+    private final PopularityCounter<V> valuePopularity;
 
     public PopularMap() {
-        this.map = new HashMap<>();
+        this(new HashMap<>());
     }
 
     public PopularMap(Map<K, V> map) {
+        this(map, new BucketPopularityCounter<>(), new BucketPopularityCounter<>());
+    }
+
+    PopularMap(Map<K, V> map, PopularityCounter<K> keyPopularity, PopularityCounter<V> valuePopularity) {
         this.map = map;
+        this.keyPopularity = keyPopularity;
+        this.valuePopularity = valuePopularity;
+    }
+
+    /**
+     * Мапа с приближенным подсчетом популярности: память под счетчики фиксирована и не растет
+     * с количеством разных ключей и значений.
+     * getKeyPopularity/getValuePopularity не меньше настоящей популярности и с вероятностью не меньше 1 - delta
+     * превышают ее не больше чем на epsilon * N (N - сколько раз учитывались все ключи/значения).
+     * popularIterator обходит только самые популярные значения, их не больше ceil(1 / epsilon).
+     *
+     * @param epsilon - допустимая ошибка относительно N, от 0 до 1
+     * @param delta   - вероятность превысить ошибку, от 0 до 1
+     */
+    public static <K, V> PopularMap<K, V> approximate(double epsilon, double delta) {
+        return new PopularMap<>(new HashMap<>(),
+                new ApproximatePopularityCounter<>(epsilon, delta),
+                new ApproximatePopularityCounter<>(epsilon, delta));
+    }
+
+    /**
+     * Мапа, в которой популярность считается только за последнее время window.
+     * Окно делится на slices отрезков, старые использования устаревают целым отрезком, поэтому
+     * точность окна - window / slices. Устаревание происходит постепенно во время обычных вызовов,
+     * getPopularKey/getPopularValue остаются О(1).
+     *
+     * @param clock - источник времени, в тестах можно подставить свой
+     */
+    public static <K, V> PopularMap<K, V> windowed(Duration window, int slices, Clock clock) {
+        return new PopularMap<>(new HashMap<>(),
+                new WindowedPopularityCounter<>(window, slices, clock),
+                new WindowedPopularityCounter<>(window, slices, clock));
+    }
+
+    public static <K, V> PopularMap<K, V> windowed(Duration window, int slices) {
+        return windowed(window, slices, Clock.systemUTC());
     }
 
     @Override
     public int size() {
-        return 0;
+        return map.size();
     }
 
     @Override
     public boolean isEmpty() {
-        return false;
+        return map.isEmpty();
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return false;
+        keyPopularity.increment(castKey(key));
+        return map.containsKey(key);
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return false;
+        valuePopularity.increment(castValue(value));
+        return map.containsValue(value);
     }
 
     @Override
     public V get(Object key) {
-        return null;
+        keyPopularity.increment(castKey(key));
+        V value = map.get(key);
+        valuePopularity.increment(value);
+        return value;
     }
 
     @Override
     public V put(K key, V value) {
-        return null;
+        keyPopularity.increment(key);
+        valuePopularity.increment(value);
+        V oldValue = map.put(key, value);
+        valuePopularity.increment(oldValue);
+        return oldValue;
     }
 
     @Override
     public V remove(Object key) {
-        return null;
+        keyPopularity.increment(castKey(key));
+        V oldValue = map.remove(key);
+        valuePopularity.increment(oldValue);
+        return oldValue;
     }
 
+    /**
+     * Каждая пара учитывается в популярности так же, как в {@link #put(Object, Object)}:
+     * ключ, новое значение и старое значение
+     */
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
-        throw new UnsupportedOperationException("putAll");
+        m.forEach((key, value) -> {
+            keyPopularity.increment(key);
+            valuePopularity.increment(value);
+            valuePopularity.increment(map.get(key));
+        });
+        map.putAll(m);
     }
 
     @Override
     public void clear() {
-
+        map.clear();
     }
 
     @Override
     public Set<K> keySet() {
-        return null;
+        return map.keySet();
     }
 
     @Override
     public Collection<V> values() {
-        return null;
+        return map.values();
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
-        return null;
+        return map.entrySet();
     }
 
     /**
      * Возвращает самый популярный, на данный момент, ключ
      * 1 балл
+     *
+     * Сложность - О(1)
      */
     public K getPopularKey() {
-        return null;
+        return keyPopularity.getMostPopular();
     }
 
 
     /**
      * Возвращает количество использование ключа
      * 1 балл
+     *
+     * Сложность - О(1)
      */
     public int getKeyPopularity(K key) {
-        return 0;
+        return keyPopularity.getPopularity(key);
     }
 
     /**
      * Возвращает самое популярное, на данный момент, значение. Надо учесть что значени может быть более одного
      * 1 балл
+     *
+     * Сложность - О(1)
      */
     public V getPopularValue() {
-        return null;
+        return valuePopularity.getMostPopular();
     }
 
     /**
      * Возвращает количество использований значений в методах: containsValue, get, put (учитывается 2 раза, если
      * старое значение и новое - одно и тоже), remove (считаем по старому значению).
      * 1 балл
+     *
+     * Сложность - О(1)
      */
     public int getValuePopularity(V value) {
-        return 0;
+        return valuePopularity.getPopularity(value);
     }
 
     /**
      * Вернуть итератор, который итерируется по значениям (от самых НЕ популярных, к самым популярным)
      * 2 балла
+     *
+     * Итератор ленивый, значения заранее не копируются и не сортируются: первый next() - О(1).
+     * Любая операция, меняющая популярность значения (get, put, remove, containsValue), делает итератор
+     * невалидным - следующий вызов hasNext()/next() бросит ConcurrentModificationException.
      */
     public Iterator<V> popularIterator() {
-        return null;
+        return valuePopularity.iterator();
+    }
+
+    /**
+     * Ключи и значения в методы Map приходят как Object, но в счетчик могут попасть только объекты,
+     * которые мапа и так обязана принимать.
+     */
+    @SuppressWarnings("unchecked")
+    private K castKey(Object key) {
+        return (K) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V castValue(Object value) {
+        return (V) value;
     }
 }
@@ -0,0 +1,22 @@
+package ru.mail.polis.homework.collections;
+
+/**
+ * Счетчик популярности объектов для {@link PopularMap}.
+ * Итератор обходит объекты от самых НЕ популярных к самым популярным.
+ *
+ * @param <T> - тип объекта
+ */
+interface PopularityCounter<T> extends Iterable<T> {
+
+    /**
+     * Увеличивает популярность объекта на 1. null не учитывается.
+     */
+    void increment(T item);
+
+    int getPopularity(T item);
+
+    /**
+     * Возвращает самый популярный объект или null, если счетчик пуст.
+     */
+    T getMostPopular();
+}
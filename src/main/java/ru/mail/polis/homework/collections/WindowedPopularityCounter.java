@@ -0,0 +1,98 @@
+package ru.mail.polis.homework.collections;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Счетчик популярности в скользящем окне времени.
+ * Окно делится на slices равных отрезков, для каждого отрезка в кольцевом буфере хранится,
+ * сколько раз в нем учитывался каждый объект. Общая популярность за окно лежит в {@link BucketPopularityCounter}.
+ * Когда отрезок выходит из окна, его объекты уменьшаются в общем счетчике ровно на столько, сколько
+ * в нем было учтено. Поэтому каждое увеличение устаревает ровно один раз, и пересчитывать все счетчики
+ * не нужно никогда: устаревание в среднем стоит О(1) на одно увеличение.
+ *
+ * Точность окна - длина одного отрезка: учитываются текущий отрезок и slices - 1 предыдущих.
+ *
+ * @param <T> - тип объекта
+ */
+class WindowedPopularityCounter<T> implements PopularityCounter<T> {
+
+    private final BucketPopularityCounter<T> popularity = new BucketPopularityCounter<>();
+    private final List<Map<T, Integer>> slices;
+    private final long sliceMillis;
+    private final Clock clock;
+
+    /**
+     * Номер последнего отрезка, до которого счетчик уже устарел
+     */
+    private long currentSlice;
+
+    WindowedPopularityCounter(Duration window, int slices, Clock clock) {
+        if (slices <= 0 || window.toMillis() < slices) {
+            throw new IllegalArgumentException("window = " + window + ", slices = " + slices);
+        }
+        this.slices = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            this.slices.add(new HashMap<>());
+        }
+        this.sliceMillis = window.toMillis() / slices;
+        this.clock = clock;
+        this.currentSlice = clock.millis() / sliceMillis;
+    }
+
+    @Override
+    public void increment(T item) {
+        if (item == null) {
+            return;
+        }
+        expire();
+        popularity.increment(item);
+        slices.get(index(currentSlice)).merge(item, 1, Integer::sum);
+    }
+
+    @Override
+    public int getPopularity(T item) {
+        expire();
+        return popularity.getPopularity(item);
+    }
+
+    @Override
+    public T getMostPopular() {
+        expire();
+        return popularity.getMostPopular();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        expire();
+        return popularity.iterator();
+    }
+
+    /**
+     * Сдвигает окно на текущее время, отрезки, вышедшие из окна, вычитаются из общего счетчика.
+     * Если прошло больше целого окна, то очищается каждый отрезок, но не больше одного раза.
+     */
+    private void expire() {
+        long now = clock.millis() / sliceMillis;
+        long from = Math.max(currentSlice, now - slices.size());
+        for (long slice = from + 1; slice <= now; slice++) {
+            Map<T, Integer> expired = slices.get(index(slice));
+            expired.forEach((item, count) -> {
+                for (int i = 0; i < count; i++) {
+                    popularity.decrement(item);
+                }
+            });
+            expired.clear();
+        }
+        currentSlice = Math.max(currentSlice, now);
+    }
+
+    private int index(long slice) {
+        return (int) Math.floorMod(slice, (long) slices.size());
+    }
+}
@@ -0,0 +1,245 @@
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Асинхронный прием писем для {@link MailService}: accept только кладет письмо в очередь,
+ * а в ящики его раскладывают потоки-потребители.
+ *
+ * У каждого потребителя своя ограниченная очередь {@link MpscRingBuffer}, письмо попадает в очередь
+ * по хешу получателя, поэтому письма одному получателю от одного производителя обрабатываются в порядке
+ * отправки. Память ограничена: consumers * capacity писем в очередях. Что делать, когда очередь
+ * заполнена, определяет {@link OverloadPolicy}.
+ *
+ * Метрики: текущая глубина очередей, количество отброшенных писем и время от входа в accept до раскладки
+ * письма в ящик, включая ожидание места в очереди (среднее и максимальное).
+ *
+ * @param <T> - тип писем
+ */
+public class AsyncMailService<T extends Mail<?>> implements Consumer<T>, AutoCloseable {
+
+    /**
+     * Сколько раз потребитель проверяет пустую очередь перед тем, как уснуть
+     */
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /**
+     * Производитель при BLOCK ждет места в очереди, засыпая на время от MIN до MAX, удваивая его каждый раз
+     */
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Что делать с письмом, если очередь его потребителя заполнена
+     */
+    public enum OverloadPolicy {
+        /**
+         * Производитель ждет, пока в очереди появится место
+         */
+        BLOCK,
+        /**
+         * Письмо отбрасывается и учитывается в {@link #getDroppedCount()}
+         */
+        DROP,
+        /**
+         * Производитель сам раскладывает письмо в ящик. Такое письмо может обогнать письма того же
+         * получателя, которые еще стоят в очереди.
+         */
+        CALLER_RUNS
+    }
+
+    private final MailService<T> service;
+    private final OverloadPolicy policy;
+    private final List<MpscRingBuffer<T>> queues = new ArrayList<>();
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean closed;
+    /**
+     * Производители, которые прошли проверку closed и еще не поставили письмо в очередь.
+     * Потребитель останавливается, только когда таких нет и его очередь пуста.
+     */
+    private final LongAdder producing = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder latencySum = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * @param service   - сервис, в который раскладываются письма
+     * @param consumers - количество потоков-потребителей
+     * @param capacity  - вместимость очереди одного потребителя, округляется вверх до степени двойки, не меньше 2
+     * @param policy    - что делать при переполнении очереди
+     */
+    public AsyncMailService(MailService<T> service, int consumers, int capacity, OverloadPolicy policy) {
+        if (consumers <= 0) {
+            throw new IllegalArgumentException("consumers must be positive: " + consumers);
+        }
+        if (service == null || policy == null) {
+            throw new IllegalArgumentException("service and policy must be not null");
+        }
+        this.service = service;
+        this.policy = policy;
+        for (int i = 0; i < consumers; i++) {
+            MpscRingBuffer<T> queue = new MpscRingBuffer<>(capacity);
+            queues.add(queue);
+            Thread thread = new Thread(() -> consume(queue), "mail-consumer-" + i);
+            thread.setDaemon(true);
+            this.consumers.add(thread);
+        }
+        this.consumers.forEach(Thread::start);
+    }
+
+    /**
+     * Ставит письмо в очередь. При BLOCK может ждать свободного места, при CALLER_RUNS - раскладывает
+     * письмо сам, при DROP никогда не ждет.
+     * Сложность - О(1)
+     *
+     * @throws IllegalStateException - если сервис уже закрыт
+     */
+    @Override
+    public void accept(T mail) {
+        long acceptedAt = System.nanoTime();
+        MailService.checkMail(mail);
+        producing.increment();
+        try {
+            if (closed) {
+                throw new IllegalStateException("service is closed");
+            }
+            enqueue(mail, acceptedAt);
+        } finally {
+            producing.decrement();
+        }
+    }
+
+    private void enqueue(T mail, long acceptedAt) {
+        MpscRingBuffer<T> queue = queues.get(Math.floorMod(mail.getRecipient().hashCode(), queues.size()));
+        if (queue.offer(mail, acceptedAt)) {
+            return;
+        }
+        switch (policy) {
+            case BLOCK:
+                for (long backoff = MIN_BACKOFF_NANOS; !queue.offer(mail, acceptedAt);
+                     backoff = Math.min(MAX_BACKOFF_NANOS, backoff * 2)) {
+                    LockSupport.parkNanos(this, backoff);
+                }
+                break;
+            case DROP:
+                dropped.increment();
+                break;
+            case CALLER_RUNS:
+                callerRuns.increment();
+                service.accept(mail);
+                recordLatency(acceptedAt);
+                break;
+            default:
+                throw new IllegalStateException("unknown policy " + policy);
+        }
+    }
+
+    /**
+     * Перестает принимать письма, дожидается, пока потребители разложат все письма из очередей,
+     * и останавливает их. Прерывание не останавливает ожидание: письма из очередей не теряются,
+     * а флаг прерывания восстанавливается перед выходом.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        boolean interrupted = false;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+            while (consumer.isAlive()) {
+                try {
+                    consumer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public MailService<T> getService() {
+        return service;
+    }
+
+    /**
+     * Сколько писем сейчас ждет в очередях
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (MpscRingBuffer<T> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Сколько писем разложили сами производители из-за переполнения (политика CALLER_RUNS)
+     */
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * Сколько писем разложено в ящики, включая разложенные производителями
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    /**
+     * Среднее время от accept до раскладки письма в ящик
+     */
+    public long getAverageLatencyNanos() {
+        long count = processed.sum();
+        return count == 0 ? 0 : latencySum.sum() / count;
+    }
+
+    /**
+     * Максимальное время от accept до раскладки письма в ящик
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatency.get();
+    }
+
+    private void consume(MpscRingBuffer<T> queue) {
+        MpscRingBuffer.Handler<T> handler = (mail, acceptedAt) -> {
+            service.accept(mail);
+            recordLatency(acceptedAt);
+        };
+        int idle = 0;
+        while (true) {
+            if (queue.poll(handler)) {
+                idle = 0;
+            } else if (closed && producing.sum() == 0) {
+                if (!queue.poll(handler)) {
+                    return;
+                }
+            } else if (++idle < IDLE_SPINS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void recordLatency(long start) {
+        long latency = System.nanoTime() - start;
+        processed.increment();
+        latencySum.add(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link MailBox}, который хранит не больше retention последних писем, более старые вытесняются.
+ *
+ * Письма лежат в кольцевом буфере из степени двойки ячеек, не меньше 2 * retention. Письмо с номером i
+ * попадает в ячейку i & mask вместе со своим номером, поэтому читатель отличает нужное письмо от того,
+ * что записали в ячейку позже. Номера резервируются и публикуются так же, как в {@link GrowingMailBox}.
+ * Писатель перезаписывает ячейку, только когда лежащее в ней письмо уже опубликовано и вытеснено,
+ * иначе ждет: так бывает, только если одновременно пишут больше retention потоков.
+ *
+ * Память ограничена буфером: О(retention) независимо от количества писем.
+ *
+ * @param <T> - тип письма
+ */
+class BoundedMailBox<T> extends MailBox<T> implements RandomAccess {
+
+    static final int MAX_RETENTION = 1 << 28;
+
+    private final int retention;
+    private final int mask;
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    BoundedMailBox(int retention) {
+        if (retention <= 0 || retention > MAX_RETENTION) {
+            throw new IllegalArgumentException("retention must be in [1, 2^28]: " + retention);
+        }
+        this.retention = retention;
+        int capacity = Integer.highestOneBit(retention) << 2;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Сложность - О(1)
+     */
+    @Override
+    void append(T mail) {
+        long index = reserved.getAndIncrement();
+        long overwritten = index - slots.length();
+        while (published.get() <= overwritten + retention) {
+            Thread.yield();
+        }
+        slots.set((int) (index & mask), new Slot<>(index, mail));
+        publish();
+    }
+
+    @Override
+    long end() {
+        return published.get();
+    }
+
+    @Override
+    long first(long end) {
+        return Math.max(0, end - retention);
+    }
+
+    /**
+     * Сложность - О(1)
+     */
+    @Override
+    T read(long index) {
+        Slot<T> slot = slots.get((int) (index & mask));
+        if (slot == null || slot.index != index || index < first(end())) {
+            return null;
+        }
+        return slot.mail;
+    }
+
+    private void publish() {
+        while (true) {
+            long count = published.get();
+            if (count >= reserved.get()) {
+                return;
+            }
+            Slot<T> slot = slots.get((int) (count & mask));
+            if (slot == null || slot.index != count) {
+                return;
+            }
+            published.compareAndSet(count, count + 1);
+        }
+    }
+
+    private static class Slot<T> {
+        private final long index;
+        private final T mail;
+
+        Slot(long index, T mail) {
+            this.index = index;
+            this.mail = mail;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link MailBox} без ограничения количества писем.
+ *
+ * Элементы лежат в кусках, каждый следующий кусок вдвое больше предыдущего, поэтому при росте
+ * ничего не копируется и уже выданные номера не переезжают. Писатель резервирует номер ячейки
+ * через getAndIncrement, записывает в нее письмо и продвигает счетчик опубликованных элементов
+ * через все заполненные ячейки подряд. Читатели видят только опубликованный префикс: письмо,
+ * ячейка которого зарезервирована, но еще не заполнена, и все письма после него пока не видны.
+ *
+ * @param <T> - тип письма
+ */
+class GrowingMailBox<T> extends MailBox<T> implements RandomAccess {
+
+    private static final int FIRST_CHUNK_SHIFT = 4;
+    private static final int CHUNKS = 27;
+    /**
+     * Суммарный размер всех кусков: 16 * (2^27 - 1)
+     */
+    private static final int CAPACITY = ((1 << CHUNKS) - 1) << FIRST_CHUNK_SHIFT;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks = new AtomicReferenceArray<>(CHUNKS);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+
+    /**
+     * Сложность - амортизированное О(1)
+     */
+    @Override
+    void append(T mail) {
+        int index = reserved.getAndIncrement();
+        if (index < 0 || index >= CAPACITY) {
+            reserved.decrementAndGet();
+            throw new IllegalStateException("mailbox is full");
+        }
+        int chunk = chunkOf(index);
+        chunk(chunk, true).set(index - chunkStart(chunk), mail);
+        publish();
+    }
+
+    @Override
+    long end() {
+        return published.get();
+    }
+
+    @Override
+    long first(long end) {
+        return 0;
+    }
+
+    /**
+     * Сложность - О(1)
+     */
+    @Override
+    T read(long index) {
+        int chunk = chunkOf((int) index);
+        return chunk(chunk, false).get((int) index - chunkStart(chunk));
+    }
+
+    /**
+     * Продвигает счетчик опубликованных через заполненные ячейки. Если следующая ячейка еще пуста,
+     * ее писатель сам продолжит продвижение после записи.
+     */
+    private void publish() {
+        while (true) {
+            int count = published.get();
+            if (count >= reserved.get()) {
+                return;
+            }
+            int chunk = chunkOf(count);
+            AtomicReferenceArray<T> values = chunks.get(chunk);
+            if (values == null || values.get(count - chunkStart(chunk)) == null) {
+                return;
+            }
+            published.compareAndSet(count, count + 1);
+        }
+    }
+
+    private AtomicReferenceArray<T> chunk(int chunk, boolean create) {
+        AtomicReferenceArray<T> values = chunks.get(chunk);
+        if (values == null && create) {
+            chunks.compareAndSet(chunk, null, new AtomicReferenceArray<>(1 << (chunk + FIRST_CHUNK_SHIFT)));
+            values = chunks.get(chunk);
+        }
+        return values;
+    }
+
+    private static int chunkOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> FIRST_CHUNK_SHIFT) + 1);
+    }
+
+    private static int chunkStart(int chunk) {
+        return ((1 << chunk) - 1) << FIRST_CHUNK_SHIFT;
+    }
+}
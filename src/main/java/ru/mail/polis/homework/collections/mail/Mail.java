@@ -1,2 +1,57 @@
-package ru.mail.polis.homework.collections.mail;public class Mail {
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.Objects;
+
+/**
+ * Общая часть письма и зарплаты: получатель, отправитель и содержимое.
+ *
+ * @param <T> - тип содержимого
+ */
+public class Mail<T> {
+
+    private final String sender;
+    private final String recipient;
+    private final T content;
+
+    public Mail(String sender, String recipient, T content) {
+        this.sender = sender;
+        this.recipient = recipient;
+        this.content = content;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public T getContent() {
+        return content;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Mail<?> mail = (Mail<?>) o;
+        return Objects.equals(sender, mail.sender)
+                && Objects.equals(recipient, mail.recipient)
+                && Objects.equals(content, mail.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sender, recipient, content);
+    }
+
+    @Override
+    public String toString() {
+        return sender + " -> " + recipient + ": " + content;
+    }
 }
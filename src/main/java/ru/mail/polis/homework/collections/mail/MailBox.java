@@ -0,0 +1,155 @@
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Ящик писем одного получателя: список, в который можно добавлять из многих потоков без блокировок.
+ * Снаружи ящик доступен только для чтения.
+ *
+ * У каждого письма есть номер - порядковый номер добавления. Писатели публикуют письма строго по порядку
+ * номеров, поэтому читатели всегда видят непрерывный отрезок [first, end) опубликованных писем. Если у
+ * ящика есть ограничение на количество писем, first сдвигается вперед и самые старые письма вытесняются.
+ *
+ * Чтение слабо согласовано, как у итераторов ConcurrentHashMap: обход никогда не бросает
+ * ConcurrentModificationException, пропускает письма, вытесненные во время обхода, и может не увидеть
+ * письма, опубликованные после его начала.
+ *
+ * @param <T> - тип письма
+ */
+abstract class MailBox<T> extends AbstractList<T> {
+
+    /**
+     * Добавляет письмо в конец ящика. mail не должен быть null.
+     */
+    abstract void append(T mail);
+
+    /**
+     * Номер, следующий за последним опубликованным письмом
+     */
+    abstract long end();
+
+    /**
+     * Номер самого старого хранимого письма при данном end
+     */
+    abstract long first(long end);
+
+    /**
+     * Письмо с номером index из отрезка [first, end) или null, если оно уже вытеснено
+     */
+    abstract T read(long index);
+
+    /**
+     * index-е по старшинству из хранимых сейчас писем.
+     * Сложность - О(1)
+     */
+    @Override
+    public T get(int index) {
+        while (true) {
+            long end = end();
+            long position = first(end) + index;
+            if (index < 0 || position >= end) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            T mail = read(position);
+            if (mail != null) {
+                return mail;
+            }
+        }
+    }
+
+    /**
+     * Сложность - О(1)
+     */
+    @Override
+    public int size() {
+        long end = end();
+        return (int) Math.min(Integer.MAX_VALUE, end - first(end));
+    }
+
+    /**
+     * Не больше limit писем, начиная с offset-го по старшинству. Копируются только письма страницы.
+     * Сложность - О(limit)
+     */
+    List<T> page(int offset, int limit) {
+        long end = end();
+        long from = first(end) + offset;
+        long to = Math.min(end, from + limit);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            T mail = read(i);
+            if (mail != null) {
+                result.add(mail);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Обход писем, опубликованных к моменту создания, без копирования. Делится пополам для parallelStream.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        long end = end();
+        return new MailSpliterator(first(end), end);
+    }
+
+    private class MailSpliterator implements Spliterator<T> {
+
+        private long position;
+        private final long end;
+
+        MailSpliterator(long position, long end) {
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (position < end) {
+                T mail = read(position++);
+                if (mail != null) {
+                    action.accept(mail);
+                    return true;
+                }
+                position = Math.max(position, first(end()));
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long middle = (position + end) >>> 1;
+            if (end - position < 2) {
+                return null;
+            }
+            Spliterator<T> prefix = new MailSpliterator(position, middle);
+            position = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(0, end - position);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package ru.mail.polis.homework.collections.mail;
 
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import ru.mail.polis.homework.collections.ConcurrentPopularityCounter;
 
 /**
  * Нужно создать сервис, который умеет обрабатывать письма и зарплату.
@@ -12,47 +18,128 @@ import java.util.function.Consumer;
  *
  * В реализации нигде не должно быть классов Object и коллекций без типа. Используйте дженерики.
  * Всего 7 баллов за пакет mail
+ *
+ * Сервис потокобезопасен и рассчитан на прием писем из многих потоков одновременно: ящики получателей -
+ * это {@link MailBox} без блокировок в ConcurrentHashMap, счетчики отправителей и получателей -
+ * {@link ConcurrentPopularityCounter}: письмо текущему лидеру только увеличивает его счетчик, а лидер
+ * меняется через CAS лишь тогда, когда его обгоняют.
+ *
+ * Ящики можно читать постранично ({@link #getMailBox(String, int, int)}) и потоком ({@link #getMailStream(String)})
+ * без копирования всего ящика. Сервис, созданный с ограничением retention, хранит для каждого получателя только
+ * retention последних писем, более старые вытесняются, поэтому память ограничена независимо от количества писем.
+ *
+ * @param <T> - тип писем, которые обрабатывает сервис
  */
-public class MailService implements Consumer {
+public class MailService<T extends Mail<?>> implements Consumer<T> {
+
+    private final ConcurrentMap<String, MailBox<T>> mailBoxes = new ConcurrentHashMap<>();
+    private final ConcurrentPopularityCounter<String> senders = new ConcurrentPopularityCounter<>();
+    private final ConcurrentPopularityCounter<String> recipients = new ConcurrentPopularityCounter<>();
+    /**
+     * Сколько последних писем хранится для одного получателя, 0 - без ограничения
+     */
+    private final int retention;
+
+    public MailService() {
+        this.retention = 0;
+    }
+
+    /**
+     * @param retention - сколько последних писем хранить для каждого получателя
+     */
+    public MailService(int retention) {
+        if (retention <= 0 || retention > BoundedMailBox.MAX_RETENTION) {
+            throw new IllegalArgumentException("retention must be in [1, 2^28]: " + retention);
+        }
+        this.retention = retention;
+    }
 
     /**
      * С помощью этого метода почтовый сервис обрабатывает письма и зарплаты
      * 1 балл
+     *
+     * Сложность - амортизированное О(1)
      */
     @Override
-    public void accept(Object o) {
-
+    public void accept(T mail) {
+        checkMail(mail);
+        mailBoxes.computeIfAbsent(mail.getRecipient(), recipient -> newMailBox()).append(mail);
+        senders.increment(mail.getSender());
+        recipients.increment(mail.getRecipient());
     }
 
     /**
      * Метод возвращает мапу получатель -> все объекты которые пришли к этому получателю через данный почтовый сервис
      * 1 балл
+     *
+     * Возвращает неизменяемое представление ящиков без копирования: новые письма сразу в нем видны.
+     * Обход списков писем слабо согласован (см. {@link MailBox}).
+     * Сложность - О(1)
+     */
+    public Map<String, List<T>> getMailBox() {
+        return Collections.unmodifiableMap(mailBoxes);
+    }
+
+    /**
+     * Страница ящика получателя: не больше limit писем, начиная с offset-го от самого старого хранимого.
+     * Копируются только письма страницы.
+     *
+     * Сложность - О(limit)
+     */
+    public List<T> getMailBox(String recipient, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must be not negative");
+        }
+        MailBox<T> mailBox = mailBoxes.get(recipient);
+        return mailBox == null ? Collections.emptyList() : mailBox.page(offset, limit);
+    }
+
+    /**
+     * Письма получателя от старых к новым без копирования ящика. Поток видит письма, пришедшие
+     * до начала обхода, и пропускает вытесненные во время обхода.
      */
-    public Map<String, List> getMailBox() {
-        return null;
+    public Stream<T> getMailStream(String recipient) {
+        MailBox<T> mailBox = mailBoxes.get(recipient);
+        return mailBox == null ? Stream.empty() : mailBox.stream();
     }
 
     /**
      * Возвращает самого популярного отправителя
      * 1 балл
+     *
+     * Сложность - О(1)
      */
     public String getPopularSender() {
-        return null;
+        return senders.getMostPopular();
     }
 
     /**
      * Возвращает самого популярного получателя
      * 1 балл
+     *
+     * Сложность - О(1)
      */
     public String getPopularRecipient() {
-        return null;
+        return recipients.getMostPopular();
     }
 
     /**
      * Метод должен заставить обработать service все mails.
      * 1 балл
+     *
+     * Письма обрабатываются параллельно, порядок писем в ящике одного получателя при этом не гарантируется.
      */
-    public static void process(MailService service, List mails) {
+    public static <T extends Mail<?>> void process(MailService<T> service, List<? extends T> mails) {
+        mails.parallelStream().forEach(service);
+    }
+
+    static void checkMail(Mail<?> mail) {
+        if (mail == null || mail.getSender() == null || mail.getRecipient() == null) {
+            throw new IllegalArgumentException("mail, sender and recipient must be not null");
+        }
+    }
 
+    private MailBox<T> newMailBox() {
+        return retention == 0 ? new GrowingMailBox<>() : new BoundedMailBox<>(retention);
     }
 }
@@ -0,0 +1,113 @@
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченная очередь для многих производителей и одного потребителя без блокировок.
+ *
+ * Кольцо из степени двойки ячеек, у каждой ячейки есть номер последовательности. Производитель
+ * захватывает позицию tail через CAS, только если ячейка свободна (ее номер равен позиции), записывает
+ * элемент и его метку времени и публикует ячейку номером позиция + 1. Потребитель забирает элемент,
+ * когда номер ячейки равен head + 1, и освобождает ее номером head + capacity для следующего круга.
+ * Производители конкурируют только за tail, потребитель пишет только в head.
+ *
+ * @param <E> - тип элемента
+ */
+class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> elements;
+    /**
+     * Метки времени элементов, пишутся до публикации ячейки, поэтому видны потребителю
+     */
+    private final long[] timestamps;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity - вместимость, округляется вверх до степени двойки, но не меньше 2: в кольце из одной
+     *                 ячейки номер опубликованной ячейки совпал бы с номером свободной на следующем круге
+     */
+    MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + capacity);
+        }
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.elements = new AtomicReferenceArray<>(size);
+        this.timestamps = new long[size];
+    }
+
+    /**
+     * Добавляет элемент, если есть место. Может вызываться из любого потока.
+     * Сложность - О(1)
+     *
+     * @param timestamp - метка времени, которую получит потребитель вместе с элементом
+     * @return - false, если очередь заполнена
+     */
+    boolean offer(E element, long timestamp) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    timestamps[index] = timestamp;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (delta < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Забирает самый старый элемент и передает его handler вместе с его меткой времени.
+     * Вызывается только из потока потребителя.
+     * Сложность - О(1)
+     *
+     * @return - false, если опубликованных элементов нет
+     */
+    boolean poll(Handler<? super E> handler) {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return false;
+        }
+        E element = elements.get(index);
+        long time = timestamps[index];
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head.lazySet(position + 1);
+        handler.handle(element, time);
+        return true;
+    }
+
+    /**
+     * Примерное количество элементов в очереди, можно вызывать из любого потока
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    interface Handler<E> {
+        void handle(E element, long timestamp);
+    }
+}
@@ -3,5 +3,13 @@ package ru.mail.polis.homework.collections.mail;
 /**
  * 1 балл
  */
-public class Salary {
+public class Salary extends Mail<Long> {
+
+    public Salary(String sender, String recipient, long sum) {
+        super(sender, recipient, sum);
+    }
+
+    public long getSum() {
+        return getContent();
+    }
 }
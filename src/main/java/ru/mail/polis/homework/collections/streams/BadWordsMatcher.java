@@ -0,0 +1,206 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Скомпилированный список плохих слов для {@link SimpleStreams#createBadWordsDetectingStream(String, List)}.
+ *
+ * Плохое слово совпадает только с целым словом текста, поэтому вместо автомата Ахо-Корасик, который ищет
+ * подстроки, хватает хеш-множества слов: текст проходится один раз, хеш слова считается на ходу по формуле
+ * String.hashCode, и в конце слова делается одна проверка по таблице с открытой адресацией (линейное
+ * пробирование) без создания подстрок. Время не зависит от размера списка плохих слов.
+ *
+ * Таблица строится один раз в конструкторе и дальше только читается, поэтому один матчер можно
+ * использовать из многих потоков. Большой текст можно проверять параллельно через
+ * {@link #countParallel(CharSequence)}.
+ */
+public class BadWordsMatcher {
+
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int EMPTY = -1;
+
+    private final String[] words;
+    private final int[] hashes;
+    private final int[] table;
+
+    /**
+     * Сложность - О(суммарная длина слов)
+     */
+    public BadWordsMatcher(Collection<String> badWords) {
+        Map<String, Integer> unique = new HashMap<>();
+        for (String word : badWords) {
+            if (word == null) {
+                throw new IllegalArgumentException("bad words must be not null");
+            }
+            if (!word.isEmpty()) {
+                unique.putIfAbsent(word, unique.size());
+            }
+        }
+        words = new String[unique.size()];
+        unique.forEach((word, id) -> words[id] = word);
+        hashes = new int[words.length];
+        table = new int[Integer.highestOneBit(Math.max(1, words.length)) << 2];
+        Arrays.fill(table, EMPTY);
+        for (int id = 0; id < words.length; id++) {
+            hashes[id] = words[id].hashCode();
+            int slot = slot(hashes[id]);
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = id;
+        }
+    }
+
+    /**
+     * Количество упоминаний каждого плохого слова, которое есть в тексте
+     * Сложность - О(длина текста) в среднем
+     */
+    public Map<String, Integer> count(CharSequence text) {
+        int[] counts = new int[words.length];
+        scan(text, 0, text.length(), counts);
+        return toMap(counts);
+    }
+
+    /**
+     * То же, но большой текст делится на куски, которые проверяются параллельно в общем пуле
+     */
+    public Map<String, Integer> countParallel(CharSequence text) {
+        return countParallel(text, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * То же, но куски текста проверяются в пуле pool
+     */
+    public Map<String, Integer> countParallel(CharSequence text, ForkJoinPool pool) {
+        return countParallel(text, pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Текст делится на куски примерно по chunkSize символов, граница куска сдвигается вперед до ближайшего
+     * разделителя, поэтому слово никогда не разрезается. У каждого куска свои счетчики, в конце они складываются.
+     */
+    Map<String, Integer> countParallel(CharSequence text, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        int length = text.length();
+        if (length <= chunkSize) {
+            return count(text);
+        }
+        List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+        int from = 0;
+        while (from < length) {
+            int to = boundary(text, (int) Math.min(length, (long) from + chunkSize));
+            int start = from;
+            tasks.add(pool.submit(() -> {
+                int[] counts = new int[words.length];
+                scan(text, start, to, counts);
+                return counts;
+            }));
+            from = to;
+        }
+        int[] counts = new int[words.length];
+        for (ForkJoinTask<int[]> task : tasks) {
+            int[] chunk = task.join();
+            for (int id = 0; id < counts.length; id++) {
+                counts[id] += chunk[id];
+            }
+        }
+        return toMap(counts);
+    }
+
+    /**
+     * Различных плохих слов
+     */
+    public int size() {
+        return words.length;
+    }
+
+    static boolean isDelimiter(char c) {
+        switch (c) {
+            case '.':
+            case ',':
+            case ';':
+            case ':':
+            case '!':
+            case '?':
+                return true;
+            default:
+                return Character.isWhitespace(c);
+        }
+    }
+
+    private void scan(CharSequence text, int from, int to, int[] counts) {
+        int i = from;
+        while (i < to) {
+            while (i < to && isDelimiter(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            int hash = 0;
+            while (i < to && !isDelimiter(text.charAt(i))) {
+                hash = 31 * hash + text.charAt(i);
+                i++;
+            }
+            if (i > start) {
+                int id = find(text, start, i, hash);
+                if (id != EMPTY) {
+                    counts[id]++;
+                }
+            }
+        }
+    }
+
+    private int find(CharSequence text, int start, int end, int hash) {
+        for (int slot = slot(hash); table[slot] != EMPTY; slot = (slot + 1) & (table.length - 1)) {
+            int id = table[slot];
+            if (hashes[id] == hash && equals(words[id], text, start, end)) {
+                return id;
+            }
+        }
+        return EMPTY;
+    }
+
+    private Map<String, Integer> toMap(int[] counts) {
+        Map<String, Integer> result = new HashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                result.put(words[id], counts[id]);
+            }
+        }
+        return result;
+    }
+
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+
+    /**
+     * Первая позиция разделителя, начиная с position, или длина текста
+     */
+    private static int boundary(CharSequence text, int position) {
+        while (position < text.length() && !isDelimiter(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean equals(String word, CharSequence text, int start, int end) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
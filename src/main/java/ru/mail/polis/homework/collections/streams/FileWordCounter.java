@@ -0,0 +1,132 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Параллельный подсчет слов в файле в кодировке UTF-8 для {@link WordFrequency}.
+ *
+ * Файл делится на куски примерно по chunkSize байт, граница куска сдвигается вперед до ближайшего
+ * пробельного байта. В UTF-8 байты пробелов и переводов строк не встречаются внутри многобайтовых
+ * символов, поэтому граница никогда не разрезает ни символ, ни слово. Каждый рабочий поток берет
+ * следующий свободный кусок, отображает его в память, декодирует в свой переиспользуемый буфер и считает
+ * слова в свой {@link WordCounter}. В конце счетчики потоков объединяются.
+ * Если пробела нет так долго, что кусок вырастает больше Integer.MAX_VALUE байт, бросается
+ * IllegalArgumentException: такой кусок не отображается в память и не помещается в CharBuffer.
+ */
+class FileWordCounter {
+
+    static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+    private static final int SCAN_SIZE = 4096;
+
+    private FileWordCounter() {
+    }
+
+    static WordCounter count(Path file, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunks = (size + chunkSize - 1) / chunkSize;
+            AtomicLong nextChunk = new AtomicLong();
+            int workers = (int) Math.min(pool.getParallelism(), Math.max(1, chunks));
+            List<ForkJoinTask<WordCounter>> tasks = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                tasks.add(pool.submit(() -> {
+                    try {
+                        return countChunks(channel, size, chunkSize, chunks, nextChunk);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            WordCounter result = tasks.get(0).join();
+            for (int i = 1; i < workers; i++) {
+                result.merge(tasks.get(i).join());
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static WordCounter countChunks(FileChannel channel, long size, int chunkSize, long chunks,
+                                           AtomicLong nextChunk) throws IOException {
+        WordCounter counter = new WordCounter();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer chars = CharBuffer.allocate(0);
+        for (long chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+            long from = boundary(channel, size, chunk * chunkSize);
+            long to = boundary(channel, size, Math.min(size, (chunk + 1) * chunkSize));
+            if (from >= to) {
+                continue;
+            }
+            if (to - from > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("no whitespace between bytes " + from + " and " + to
+                        + ": chunk is longer than " + Integer.MAX_VALUE + " bytes");
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            if (chars.capacity() < to - from) {
+                chars = CharBuffer.allocate((int) (to - from));
+            }
+            chars.clear();
+            decoder.reset();
+            CoderResult result = decoder.decode(bytes, chars, true);
+            if (!result.isError()) {
+                result = decoder.flush(chars);
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            chars.flip();
+            counter.addLine(chars);
+        }
+        return counter;
+    }
+
+    /**
+     * Первая позиция пробельного байта, начиная с position, или размер файла
+     */
+    private static long boundary(FileChannel channel, long size, long position) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                if (isWhitespace(buffer.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+}
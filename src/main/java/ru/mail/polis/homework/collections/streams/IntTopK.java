@@ -0,0 +1,102 @@
+package ru.mail.polis.homework.collections.streams;
+
+/**
+ * Отбор k лучших номеров (индексов в примитивных массивах) без боксинга.
+ *
+ * Номера хранятся в ограниченной двоичной куче на массиве int, в вершине - худший из отобранных,
+ * поэтому новый номер сравнивается только с ним. Отбор k лучших из N номеров - О(N log k),
+ * память - О(k). Не потокобезопасен.
+ */
+public class IntTopK {
+
+    /**
+     * Порядок номеров: отрицательное значение, если a лучше b
+     */
+    @FunctionalInterface
+    public interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    private final IntComparator order;
+    private final int[] heap;
+    private int size;
+
+    /**
+     * @param k     - сколько лучших номеров отбирать, не меньше 0
+     * @param order - порядок от лучших к худшим
+     */
+    public IntTopK(int k, IntComparator order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k = " + k);
+        }
+        this.order = order;
+        this.heap = new int[k];
+    }
+
+    /**
+     * Сложность - О(log k)
+     */
+    public void offer(int id) {
+        if (size < heap.length) {
+            heap[size] = id;
+            siftUp(size++);
+        } else if (size > 0 && order.compare(id, heap[0]) < 0) {
+            heap[0] = id;
+            siftDown();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Отобранные номера от лучшего к худшему, после этого отбор пуст
+     * Сложность - О(k log k)
+     */
+    public int[] drain() {
+        int[] result = new int[size];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown();
+        }
+        return result;
+    }
+
+    /**
+     * Худший из отобранных поднимается к вершине
+     */
+    private void siftUp(int i) {
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order.compare(heap[parent], id) >= 0) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = id;
+    }
+
+    private void siftDown() {
+        int id = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.compare(heap[child], id) <= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = id;
+    }
+}
@@ -0,0 +1,314 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Проверка чисел на простоту и простые числа на отрезках.
+ *
+ * Для чисел меньше maxSieve используется решето Эратосфена, которое хранится битами (один бит на нечетное
+ * число, 1 - составное) и лениво растет кусками: когда проверяют число чуть больше уже просеянной границы,
+ * решето удваивается, досеивая только новую часть по уже известным простым. Большие числа проверяются
+ * детерминированным тестом Миллера-Рабина с базами, которые дают точный ответ для всех long.
+ *
+ * Отрезки за границей maxSieve просеиваются кусками по SEGMENT чисел без сохранения (сегментированное решето),
+ * поэтому памяти нужно не больше maxSieve / 16 байт.
+ *
+ * Потокобезопасен: проверки читают текущее решето без блокировок, рост решета выполняется под блокировкой
+ * и публикуется целиком новым массивом.
+ */
+public class PrimeService {
+
+    /**
+     * Сколько чисел просеивается за один раз в запросах по отрезку
+     */
+    private static final int SEGMENT = 1 << 16;
+    /**
+     * Начальная граница решета, больше чем sqrt(Integer.MAX_VALUE), поэтому в нем есть все простые,
+     * нужные для просеивания любых int
+     */
+    private static final int INITIAL_LIMIT = 1 << 16;
+    private static final int DEFAULT_MAX_SIEVE = 1 << 26;
+    private static final long SMALL_BASES_LIMIT = 3_215_031_751L;
+    private static final long[] SMALL_BASES = {2, 3, 5, 7};
+    private static final long[] BASES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+
+    private static final PrimeService DEFAULT = new PrimeService();
+
+    private final int maxSieve;
+    /**
+     * Нечетные простые до sqrt(Integer.MAX_VALUE)
+     */
+    private final int[] basePrimes;
+    private volatile Sieve sieve;
+
+    public PrimeService() {
+        this(DEFAULT_MAX_SIEVE);
+    }
+
+    /**
+     * @param maxSieve - до какого числа можно растить решето, не меньше 2^16
+     */
+    public PrimeService(int maxSieve) {
+        if (maxSieve < INITIAL_LIMIT) {
+            throw new IllegalArgumentException("maxSieve must be at least " + INITIAL_LIMIT + ": " + maxSieve);
+        }
+        this.maxSieve = (int) Math.min(Integer.MAX_VALUE - 127, roundUp(maxSieve));
+        this.sieve = initialSieve();
+        this.basePrimes = IntStream.rangeClosed(3, (int) Math.sqrt(Integer.MAX_VALUE) + 1)
+                .filter(n -> (n & 1) == 1 && !sieve.isComposite(n))
+                .toArray();
+    }
+
+    /**
+     * Общий экземпляр для {@link SimpleStreams#isPrime(int)}
+     */
+    public static PrimeService getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Сложность - О(1) внутри решета, амортизированное O(log log n) при его росте,
+     * О(log^3 n) для теста Миллера-Рабина
+     */
+    public boolean isPrime(long n) {
+        if (n < 2) {
+            return false;
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        Sieve current = sieve;
+        if (n < current.limit) {
+            return !current.isComposite(n);
+        }
+        if (n < maxSieve && n < 2L * current.limit) {
+            return !grow(n + 1).isComposite(n);
+        }
+        return millerRabin(n);
+    }
+
+    /**
+     * Простые числа из отрезка [from, to] по возрастанию, вычисляются лениво кусками по SEGMENT чисел
+     */
+    public IntStream primes(int from, int to) {
+        long lo = Math.max(3, from) & ~1L;
+        long hi = to + 1L;
+        IntStream two = from <= 2 && 2 <= to ? IntStream.of(2) : IntStream.empty();
+        if (lo >= hi) {
+            return two;
+        }
+        int segments = (int) ((hi - lo + SEGMENT - 1) / SEGMENT);
+        return IntStream.concat(two, IntStream.range(0, segments)
+                .flatMap(segment -> {
+                    long start = lo + (long) segment * SEGMENT;
+                    return IntStream.of(segmentPrimes(start, Math.min(hi, start + SEGMENT)));
+                }));
+    }
+
+    /**
+     * Простые числа из отрезка [from, to] по возрастанию
+     */
+    public int[] primesInRange(int from, int to) {
+        return primes(from, to).toArray();
+    }
+
+    /**
+     * Количество простых чисел на отрезке [from, to], считается по словам битового решета без перебора чисел
+     */
+    public long countPrimes(int from, int to) {
+        long lo = Math.max(3, from) & ~1L;
+        long hi = to + 1L;
+        long count = from <= 2 && 2 <= to ? 1 : 0;
+        for (long start = lo; start < hi; start += SEGMENT) {
+            for (long word : segment(start, Math.min(hi, start + SEGMENT))) {
+                count += Long.bitCount(~word);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Нечетные простые из [start, end), start четное
+     */
+    private int[] segmentPrimes(long start, long end) {
+        long[] bits = segment(start, end);
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(~word);
+        }
+        int[] result = new int[count];
+        int k = 0;
+        for (int i = 0; i < bits.length; i++) {
+            for (long free = ~bits[i]; free != 0; free &= free - 1) {
+                result[k++] = (int) (start + 1 + 2L * (i * 64 + Long.numberOfTrailingZeros(free)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Биты составных нечетных чисел из [start, end), start четное: бит j - число start + 1 + 2j.
+     * Лишние биты последнего слова выставлены в 1.
+     */
+    private long[] segment(long start, long end) {
+        int count = (int) ((end - start) / 2);
+        long[] bits;
+        if (end <= maxSieve) {
+            Sieve current = end <= sieve.limit ? sieve : grow(end);
+            bits = copyBits(current.bits, start >>> 1, count);
+        } else {
+            bits = new long[(count + 63) >>> 6];
+            markComposites(bits, 0, start, end, basePrimes);
+        }
+        if ((count & 63) != 0) {
+            bits[bits.length - 1] |= -1L << (count & 63);
+        }
+        return bits;
+    }
+
+    /**
+     * Досеивает решето хотя бы до needed (но не дальше maxSieve), увеличивая его минимум вдвое
+     */
+    private synchronized Sieve grow(long needed) {
+        Sieve current = sieve;
+        if (needed <= current.limit) {
+            return current;
+        }
+        int limit = (int) Math.min(maxSieve, roundUp(Math.max(needed, 2L * current.limit)));
+        long[] bits = Arrays.copyOf(current.bits, limit >>> 7);
+        markComposites(bits, current.limit >>> 1, current.limit, limit, basePrimes);
+        Sieve grown = new Sieve(bits, limit);
+        sieve = grown;
+        return grown;
+    }
+
+    private static Sieve initialSieve() {
+        long[] bits = new long[INITIAL_LIMIT >>> 7];
+        bits[0] |= 1;
+        for (int p = 3; p * p < INITIAL_LIMIT; p += 2) {
+            if ((bits[p >>> 7] & (1L << (p >>> 1))) == 0) {
+                for (int m = p * p; m < INITIAL_LIMIT; m += 2 * p) {
+                    bits[m >>> 7] |= 1L << (m >>> 1);
+                }
+            }
+        }
+        return new Sieve(bits, INITIAL_LIMIT);
+    }
+
+    /**
+     * Отмечает составные нечетные числа из [lo, hi), lo четное: число m - бит firstBit + (m - lo - 1) / 2
+     */
+    private static void markComposites(long[] bits, long firstBit, long lo, long hi, int[] primes) {
+        for (int p : primes) {
+            long square = (long) p * p;
+            if (square >= hi) {
+                break;
+            }
+            long multiple = Math.max(square, (lo + p - 1) / p * p);
+            if ((multiple & 1) == 0) {
+                multiple += p;
+            }
+            for (long m = multiple; m < hi; m += 2L * p) {
+                long bit = firstBit + ((m - lo - 1) >>> 1);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * count бит src, начиная с бита from
+     */
+    private static long[] copyBits(long[] src, long from, int count) {
+        long[] result = new long[(count + 63) >>> 6];
+        int word = (int) (from >>> 6);
+        int shift = (int) (from & 63);
+        for (int i = 0; i < result.length; i++) {
+            long low = src[word + i] >>> shift;
+            long high = shift == 0 || word + i + 1 >= src.length ? 0 : src[word + i + 1] << (64 - shift);
+            result[i] = low | high;
+        }
+        return result;
+    }
+
+    private static long roundUp(long n) {
+        return (n + 127) & ~127L;
+    }
+
+    private static boolean millerRabin(long n) {
+        for (long p : BASES) {
+            if (n % p == 0) {
+                return n == p;
+            }
+        }
+        long d = n - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>= s;
+        for (long a : n < SMALL_BASES_LIMIT ? SMALL_BASES : BASES) {
+            long x = powMod(a, d, n);
+            if (x == 1 || x == n - 1) {
+                continue;
+            }
+            boolean witness = true;
+            for (int r = 1; r < s && witness; r++) {
+                x = mulMod(x, x, n);
+                witness = x != n - 1;
+            }
+            if (witness) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long powMod(long base, long exponent, long n) {
+        long result = 1;
+        base %= n;
+        for (long e = exponent; e > 0; e >>= 1) {
+            if ((e & 1) == 1) {
+                result = mulMod(result, base, n);
+            }
+            base = mulMod(base, base, n);
+        }
+        return result;
+    }
+
+    /**
+     * a * b mod n для 0 <= a, b < n без переполнения
+     */
+    private static long mulMod(long a, long b, long n) {
+        if (n <= 0xFFFFFFFFL) {
+            return Long.remainderUnsigned(a * b, n);
+        }
+        long result = 0;
+        for (long x = a, y = b; y > 0; y >>= 1) {
+            if ((y & 1) == 1) {
+                result = addMod(result, x, n);
+            }
+            x = addMod(x, x, n);
+        }
+        return result;
+    }
+
+    private static long addMod(long a, long b, long n) {
+        return a >= n - b ? a - (n - b) : a + b;
+    }
+
+    /**
+     * Просеянные числа [0, limit): бит i - число 2i + 1
+     */
+    private static class Sieve {
+        private final long[] bits;
+        private final int limit;
+
+        Sieve(long[] bits, int limit) {
+            this.bits = bits;
+            this.limit = limit;
+        }
+
+        boolean isComposite(long n) {
+            long bit = n >>> 1;
+            return (bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+        }
+    }
+}
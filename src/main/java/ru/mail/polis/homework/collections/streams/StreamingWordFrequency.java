@@ -0,0 +1,143 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import ru.mail.polis.homework.collections.BucketPopularityCounter;
+
+/**
+ * Приблизительный вариант {@link WordFrequency} для бесконечного потока строк с ограниченной памятью.
+ * Слова выделяются по тем же правилам, строки можно добавлять по одной в любой момент,
+ * текущий top можно получить в любой момент.
+ *
+ * Алгоритм Space-Saving: отслеживается не больше capacity слов. Новое слово, когда места нет, вытесняет
+ * слово с наименьшим счетчиком и получает его счетчик + 1, а этот унаследованный счетчик запоминается как
+ * ошибка нового слова. Поэтому для отслеживаемого слова настоящее количество упоминаний лежит
+ * в [estimate - error, estimate], error не больше N / capacity (N - количество всех слов), а любое слово,
+ * которое встретилось больше N / capacity раз, гарантированно отслеживается.
+ *
+ * Счетчики ведет {@link BucketPopularityCounter} с емкостью capacity: слова хранятся в двусвязном списке
+ * корзин с одинаковым счетчиком, упорядоченных по возрастанию, поэтому добавление слова и поиск слова
+ * для вытеснения - О(1). Память - О(capacity).
+ * Не потокобезопасен.
+ */
+public class StreamingWordFrequency implements Consumer<String> {
+
+    private final BucketPopularityCounter<String> counters;
+    private final StringBuilder word = new StringBuilder();
+    private long total;
+
+    /**
+     * @param capacity - сколько слов отслеживать одновременно
+     */
+    public StreamingWordFrequency(int capacity) {
+        this.counters = new BucketPopularityCounter<>(capacity);
+    }
+
+    /**
+     * Учитывает все слова строки.
+     * Сложность - О(длина строки)
+     */
+    @Override
+    public void accept(String line) {
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    /**
+     * k слов с наибольшими оценками в порядке убывания, при равных оценках - в лексикографическом порядке.
+     * Если k не больше capacity, и для каждого слова ответа estimate - error не меньше оценки следующего
+     * слова ({@link #isExact(int)}), то ответ совпадает с точным. Для k <= 0 - пустой список.
+     * Сложность - О(k + размер последней нужной корзины * log ее размера)
+     */
+    public List<String> top(int k) {
+        return counters.top(k, Comparator.naturalOrder());
+    }
+
+    /**
+     * Гарантированно ли top(k) - это те же слова, что и в точном ответе: каждое из них точно встретилось
+     * не реже, чем могло встретиться любое другое слово. Порядок слов с близкими оценками может отличаться.
+     * Отрицательное k считается как 0.
+     */
+    public boolean isExact(int k) {
+        int n = Math.max(0, k);
+        List<String> top = top(n + 1);
+        if (top.size() <= n) {
+            return counters.size() < counters.getCapacity();
+        }
+        long next = getEstimate(top.get(n));
+        for (int i = 0; i < n; i++) {
+            if (lowerBound(top.get(i)) < next) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Оценка сверху количества упоминаний слова, 0 - если слово сейчас не отслеживается
+     * (тогда оно встретилось не больше {@link #getErrorBound()} раз)
+     */
+    public long getEstimate(String word) {
+        return counters.getCount(normalize(word));
+    }
+
+    /**
+     * Насколько оценка слова может превышать настоящее количество упоминаний
+     */
+    public long getError(String word) {
+        return counters.getError(normalize(word));
+    }
+
+    /**
+     * Верхняя граница ошибки любой оценки: наименьший отслеживаемый счетчик, если все места заняты.
+     * Он не больше N / capacity.
+     */
+    public long getErrorBound() {
+        return counters.getErrorBound();
+    }
+
+    /**
+     * Сколько всего слов учтено
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return counters.getCapacity();
+    }
+
+    /**
+     * Нижний регистр по тем же правилам, что и в accept: посимвольно и без учета локали
+     */
+    private static String normalize(String word) {
+        char[] chars = new char[word.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(word.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private void add(String word) {
+        total++;
+        counters.increment(word);
+    }
+
+    private long lowerBound(String word) {
+        return counters.getCount(word) - counters.getError(word);
+    }
+}
@@ -0,0 +1,215 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Счетчик слов для {@link WordFrequency}, который не создает строку на каждое слово.
+ *
+ * Строка разбивается на слова проверками Character.isLetterOrDigit, буквы переводятся в нижний регистр
+ * по одной. Слова хранятся подряд в одном массиве char[], слово - это номер, по которому в параллельных
+ * массивах лежат смещение, длина, хеш и количество. Индекс - таблица с открытой адресацией (линейное
+ * пробирование) из номеров слов. Новый объект появляется только для нового различного слова (и то
+ * только при росте массивов), а строки создаются только для ответа top.
+ *
+ * Не потокобезопасен: для параллельного подсчета у каждого потока свой счетчик, в конце они
+ * объединяются через {@link #merge(WordCounter)}.
+ */
+class WordCounter {
+
+    private static final int EMPTY = -1;
+
+    private char[] arena = new char[1024];
+    private int arenaSize;
+
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int[] hashes = new int[64];
+    private long[] counts = new long[64];
+    private int size;
+
+    private int[] table = newTable(128);
+
+    /**
+     * Считает все слова строки.
+     * Сложность - О(длина строки) в среднем
+     */
+    void addLine(CharSequence line) {
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(line.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            int hash = 0;
+            while (i < length && Character.isLetterOrDigit(line.charAt(i))) {
+                hash = 31 * hash + Character.toLowerCase(line.charAt(i));
+                i++;
+            }
+            if (i > start) {
+                add(line, start, i, hash, 1);
+            }
+        }
+    }
+
+    /**
+     * Прибавляет к своим счетчикам счетчики other
+     * Сложность - О(количество различных слов в other)
+     */
+    void merge(WordCounter other) {
+        CharBuffer words = CharBuffer.wrap(other.arena, 0, other.arenaSize);
+        for (int id = 0; id < other.size; id++) {
+            int offset = other.offsets[id];
+            add(words, offset, offset + other.lengths[id], other.hashes[id], other.counts[id]);
+        }
+    }
+
+    /**
+     * Количество упоминаний слова без учета регистра
+     */
+    long count(String word) {
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(word.charAt(i));
+        }
+        int id = find(word, 0, word.length(), hash);
+        return id == EMPTY ? 0 : counts[id];
+    }
+
+    /**
+     * Количество различных слов
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * n самых частых слов в порядке убывания частоты, при равной частоте - в лексикографическом порядке.
+     * Выбираются через {@link IntTopK} по номерам слов, без сортировки всех слов и без боксинга.
+     * Сложность - О(количество различных слов * log n)
+     */
+    List<String> top(int n) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        IntTopK top = new IntTopK(Math.min(n, size), (a, b) -> counts[a] != counts[b]
+                ? Long.compare(counts[b], counts[a])
+                : compareWords(a, b));
+        for (int id = 0; id < size; id++) {
+            top.offer(id);
+        }
+        int[] ids = top.drain();
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(new String(arena, offsets[id], lengths[id]));
+        }
+        return result;
+    }
+
+    private void add(CharSequence source, int from, int to, int hash, long count) {
+        int id = find(source, from, to, hash);
+        if (id != EMPTY) {
+            counts[id] += count;
+            return;
+        }
+        id = store(source, from, to, hash);
+        counts[id] = count;
+        insert(id);
+    }
+
+    private int find(CharSequence source, int from, int to, int hash) {
+        int mask = table.length - 1;
+        for (int i = spread(hash) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            int id = table[i];
+            if (hashes[id] == hash && sameWord(id, source, from, to)) {
+                return id;
+            }
+        }
+        return EMPTY;
+    }
+
+    private boolean sameWord(int id, CharSequence source, int from, int to) {
+        if (lengths[id] != to - from) {
+            return false;
+        }
+        int offset = offsets[id] - from;
+        for (int i = from; i < to; i++) {
+            if (arena[offset + i] != Character.toLowerCase(source.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int store(CharSequence source, int from, int to, int hash) {
+        int length = to - from;
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + length, arena.length * 2));
+        }
+        for (int i = from; i < to; i++) {
+            arena[arenaSize + i - from] = Character.toLowerCase(source.charAt(i));
+        }
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int id = size++;
+        offsets[id] = arenaSize;
+        lengths[id] = length;
+        hashes[id] = hash;
+        arenaSize += length;
+        return id;
+    }
+
+    private void insert(int id) {
+        if (size * 2 > table.length) {
+            table = newTable(table.length * 2);
+            for (int i = 0; i < size; i++) {
+                place(i);
+            }
+        } else {
+            place(id);
+        }
+    }
+
+    private void place(int id) {
+        int mask = table.length - 1;
+        int i = spread(hashes[id]) & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = id;
+    }
+
+    /**
+     * Сравнивает слова так же, как String.compareTo
+     */
+    private int compareWords(int a, int b) {
+        int length = Math.min(lengths[a], lengths[b]);
+        for (int i = 0; i < length; i++) {
+            char left = arena[offsets[a] + i];
+            char right = arena[offsets[b] + i];
+            if (left != right) {
+                return left - right;
+            }
+        }
+        return lengths[a] - lengths[b];
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+}
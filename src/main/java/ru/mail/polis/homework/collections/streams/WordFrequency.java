@@ -1,6 +1,8 @@
 package ru.mail.polis.homework.collections.streams;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 /**
@@ -17,11 +19,48 @@ import java.util.stream.Stream;
  */
 public class WordFrequency {
 
+    private static final int TOP = 10;
+
     /**
      * Задачу можно решить без единого условного оператора, только с помощью стримов.
+     *
+     * Решено за один проход без регулярных выражений и без строки на каждое слово: подсчет ведет
+     * {@link WordCounter}, а 10 лучших выбираются ограниченной кучей без сортировки всех слов.
+     * Сложность - О(суммарная длина строк + количество различных слов * log 10)
      */
     public static List<String> wordFrequency(Stream<String> lines) {
-        return null;
+        return wordFrequency(lines, TOP);
+    }
+
+    /**
+     * n самых популярных слов по тем же правилам
+     */
+    public static List<String> wordFrequency(Stream<String> lines, int n) {
+        WordCounter counter = new WordCounter();
+        lines.forEach(counter::addLine);
+        return counter.top(n);
+    }
+
+    /**
+     * n самых популярных слов файла в кодировке UTF-8, ответ такой же, как у wordFrequency(Files.lines(file), n).
+     * Файл читается кусками через отображение в память и считается параллельно в общем пуле.
+     *
+     * @throws java.io.UncheckedIOException - если файл не удалось прочитать или он не в UTF-8
+     */
+    public static List<String> wordFrequency(Path file, int n) {
+        return wordFrequency(file, n, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * То же, но кусками файла параллельно занимаются pool.getParallelism() потоков пула pool,
+     * у каждого свой счетчик слов, в конце счетчики объединяются (см. {@link FileWordCounter}).
+     */
+    public static List<String> wordFrequency(Path file, int n, ForkJoinPool pool) {
+        return wordFrequency(file, n, pool, FileWordCounter.DEFAULT_CHUNK_SIZE);
+    }
+
+    static List<String> wordFrequency(Path file, int n, ForkJoinPool pool, int chunkSize) {
+        return FileWordCounter.count(file, pool, chunkSize).top(n);
     }
 
 
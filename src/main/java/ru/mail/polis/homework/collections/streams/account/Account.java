@@ -1,12 +1,50 @@
 package ru.mail.polis.homework.collections.streams.account;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Реализуйте класс Account с полями:
  * id
  * список всех транзакций с аккаунта (входящие и исходящие)
  * баланс
  * 1 балл
+ *
+ * Баланс - текущий, то есть уже с учетом всех транзакций из списка.
  */
 public class Account {
 
+    private final String id;
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final long balance;
+
+    public Account(String id, long balance) {
+        this.id = id;
+        this.balance = balance;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<Transaction> getTransactions() {
+        return Collections.unmodifiableList(transactions);
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * Добавляет транзакцию в историю аккаунта, баланс при этом не меняется
+     */
+    public void addTransaction(Transaction transaction) {
+        transactions.add(transaction);
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
 }
@@ -0,0 +1,138 @@
+package ru.mail.polis.homework.collections.streams.account;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Индекс для запросов баланса аккаунтов на произвольный момент времени.
+ *
+ * Для каждого аккаунта транзакции один раз сортируются по времени, и рядом хранятся префиксные суммы
+ * изменений баланса. Тогда баланс на момент t - это текущий баланс минус изменения всех транзакций позже t,
+ * то есть (сумма всех изменений - префиксная сумма до t), где граница находится бинарным поиском.
+ * Индекс - снимок: транзакции, добавленные в аккаунты после его построения, не учитываются.
+ *
+ * A - количество аккаунтов, T - количество транзакций одного аккаунта.
+ */
+public class AccountLedger {
+
+    private final String[] ids;
+    private final long[] balances;
+    /**
+     * Время транзакций аккаунта по возрастанию
+     */
+    private final long[][] dates;
+    /**
+     * prefix[i] - сумма изменений баланса первых i транзакций аккаунта
+     */
+    private final long[][] prefix;
+    private final Map<String, Integer> index = new HashMap<>();
+
+    /**
+     * Сложность - О(A * T log T)
+     */
+    public AccountLedger(Collection<Account> accounts) {
+        int size = accounts.size();
+        ids = new String[size];
+        balances = new long[size];
+        dates = new long[size][];
+        prefix = new long[size][];
+        int i = 0;
+        for (Account account : accounts) {
+            ids[i] = account.getId();
+            balances[i] = account.getBalance();
+            List<Transaction> transactions = new ArrayList<>(account.getTransactions());
+            transactions.sort(Comparator.comparingLong(Transaction::getDate));
+            dates[i] = new long[transactions.size()];
+            prefix[i] = new long[transactions.size() + 1];
+            for (int j = 0; j < transactions.size(); j++) {
+                Transaction transaction = transactions.get(j);
+                dates[i][j] = transaction.getDate();
+                prefix[i][j + 1] = prefix[i][j] + transaction.delta(account);
+            }
+            if (index.put(account.getId(), i) != null) {
+                throw new IllegalArgumentException("duplicate account " + account.getId());
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Баланс аккаунта на момент t, транзакции в момент t уже учтены.
+     * Сложность - О(log T)
+     */
+    public long balanceAt(String accountId, long t) {
+        Integer account = index.get(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("unknown account " + accountId);
+        }
+        return balanceAt(account, t);
+    }
+
+    /**
+     * n айди аккаунтов по убыванию баланса на момент t без самого богатого аккаунта,
+     * при равном балансе - по возрастанию айди (как {@link Task#paymentsSumByAccount(List, long, int)}).
+     * Лучшие n + 1 выбираются кучей, без сортировки всех аккаунтов.
+     * Сложность - О(A * (log T + log n))
+     */
+    public List<String> topBalancesExceptRichest(long t, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n = " + n);
+        }
+        long[] current = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            current[i] = balanceAt(i, t);
+        }
+        Comparator<Integer> richer = (a, b) -> current[a] != current[b]
+                ? Long.compare(current[b], current[a])
+                : ids[a].compareTo(ids[b]);
+        int limit = (int) Math.min((long) n + 1, ids.length);
+        if (limit == 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit, richer.reversed());
+        for (int i = 0; i < ids.length; i++) {
+            if (heap.size() < limit) {
+                heap.add(i);
+            } else if (richer.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        List<String> result = new ArrayList<>(limit);
+        while (heap.size() > 1) {
+            result.add(ids[heap.poll()]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private long balanceAt(int account, long t) {
+        long[] accountDates = dates[account];
+        long[] accountPrefix = prefix[account];
+        int done = upperBound(accountDates, t);
+        return balances[account] - (accountPrefix[accountDates.length] - accountPrefix[done]);
+    }
+
+    /**
+     * Количество элементов отсортированного массива, которые не больше t
+     */
+    private static int upperBound(long[] sorted, long t) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= t) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.mail.polis.homework.collections.streams.account;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый вариант {@link Task#paymentsSumByAccount(java.util.List)}: транзакции приходят по одной или пачками,
+ * сумма исходящих транзакций каждого аккаунта поддерживается на ходу, а ответ собирается из готовых сумм
+ * без пересчета транзакций.
+ *
+ * Потокобезопасен: сумма аккаунта - LongAdder в ConcurrentHashMap, поэтому транзакции разных
+ * и даже одного аккаунта можно добавлять из многих потоков без блокировок. Повторная доставка
+ * транзакции с тем же id игнорируется, поэтому поток транзакций можно безопасно переиграть
+ * с любого места. Для этого хранятся id всех учтенных транзакций.
+ */
+public class PaymentsAggregator implements Consumer<Transaction> {
+
+    /**
+     * С какого размера пачка обрабатывается параллельно
+     */
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final ConcurrentMap<String, LongAdder> sums = new ConcurrentHashMap<>();
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Сложность - О(1)
+     */
+    @Override
+    public void accept(Transaction transaction) {
+        add(transaction);
+    }
+
+    /**
+     * Учитывает транзакцию, если транзакция с таким id еще не учитывалась.
+     * Сложность - О(1)
+     *
+     * @return - false, если транзакция - повтор
+     */
+    public boolean add(Transaction transaction) {
+        if (transaction.getId() == null) {
+            throw new IllegalArgumentException("transaction id must be not null");
+        }
+        if (!seen.add(transaction.getId())) {
+            return false;
+        }
+        sums.computeIfAbsent(transaction.getAccount().getId(), id -> new LongAdder()).add(transaction.getSum());
+        return true;
+    }
+
+    /**
+     * Учитывает пачку транзакций, большие пачки - параллельно.
+     *
+     * @return - сколько транзакций учтено впервые
+     */
+    public long addAll(Collection<Transaction> transactions) {
+        if (transactions.size() <= PARALLEL_THRESHOLD) {
+            long added = 0;
+            for (Transaction transaction : transactions) {
+                if (add(transaction)) {
+                    added++;
+                }
+            }
+            return added;
+        }
+        LongAdder added = new LongAdder();
+        transactions.parallelStream().forEach(transaction -> {
+            if (add(transaction)) {
+                added.increment();
+            }
+        });
+        return added.sum();
+    }
+
+    /**
+     * Сумма исходящих транзакций аккаунта.
+     * Сложность - О(1)
+     */
+    public long getSum(String accountId) {
+        LongAdder sum = sums.get(accountId);
+        return sum == null ? 0 : sum.sum();
+    }
+
+    /**
+     * Снимок сумм всех аккаунтов, у которых были исходящие транзакции. Транзакции, которые добавляются
+     * во время снятия снимка, могут как попасть в него, так и нет.
+     * Сложность - О(количество аккаунтов)
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> result = new HashMap<>(sums.size() * 2);
+        sums.forEach((account, sum) -> result.put(account, sum.sum()));
+        return result;
+    }
+
+    /**
+     * Сколько различных транзакций учтено
+     */
+    public int size() {
+        return seen.size();
+    }
+}
@@ -1,8 +1,9 @@
 package ru.mail.polis.homework.collections.streams.account;
 
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class Task {
 
@@ -11,7 +12,9 @@ public class Task {
      * 2 балла
      */
     public static Map<String, Long> paymentsSumByAccount(List<Transaction> transactions) {
-        return Collections.emptyMap();
+        return transactions.stream()
+                .collect(Collectors.groupingBy(transaction -> transaction.getAccount().getId(),
+                        Collectors.summingLong(Transaction::getSum)));
     }
 
     /**
@@ -37,6 +40,46 @@ public class Task {
      * 3 балла
      */
     public static List<String> paymentsSumByAccount(List<Account> accounts, long t, int n) {
-        return Collections.emptyList();
+        return accounts.stream()
+                .collect(Collectors.toMap(Account::getId, account -> balanceAt(account, t)))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(1)
+                .limit(n)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * То же самое по заранее построенному индексу: каждый запрос - бинарный поиск по транзакциям
+     * каждого аккаунта вместо пересчета всех транзакций (см. {@link AccountLedger})
+     */
+    public static List<String> paymentsSumByAccount(AccountLedger ledger, long t, int n) {
+        return ledger.topBalancesExceptRichest(t, n);
+    }
+
+    /**
+     * Суммы исходящих транзакций по колоночному хранилищу (см. {@link TransactionStore})
+     */
+    public static Map<String, Long> paymentsSumByAccount(TransactionStore store) {
+        return store.paymentsSumByAccount();
+    }
+
+    /**
+     * То же, что paymentsSumByAccount(accounts, t, n), по колоночному хранилищу (см. {@link TransactionStore})
+     */
+    public static List<String> paymentsSumByAccount(TransactionStore store, long t, int n) {
+        return store.topBalancesExceptRichest(t, n);
+    }
+
+    /**
+     * Баланс аккаунта на момент t: из текущего баланса вычитаются все транзакции, которые были позже t
+     */
+    static long balanceAt(Account account, long t) {
+        return account.getBalance() - account.getTransactions().stream()
+                .filter(transaction -> transaction.getDate() > t)
+                .mapToLong(transaction -> transaction.delta(account))
+                .sum();
     }
 }
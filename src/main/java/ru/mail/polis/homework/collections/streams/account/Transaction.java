@@ -10,10 +10,58 @@ package ru.mail.polis.homework.collections.streams.account;
  * 1 балл
  */
 public class Transaction {
+
+    private final String id;
+    private final long date;
+    private final Account account;
+    private final Account recipient;
+    private final long sum;
+
+    /**
+     * @param date      - время транзакции
+     * @param account   - аккаунт, с которого уходят деньги
+     * @param recipient - аккаунт, на который приходят деньги
+     */
+    public Transaction(String id, long date, Account account, Account recipient, long sum) {
+        this.id = id;
+        this.date = date;
+        this.account = account;
+        this.recipient = recipient;
+        this.sum = sum;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getDate() {
+        return date;
+    }
+
+    /**
+     * Исходящий аккаунт
+     */
     public Account getAccount() {
-        return null;
+        return account;
     }
+
+    public Account getRecipient() {
+        return recipient;
+    }
+
     public Long getSum() {
-        return null;
+        return sum;
+    }
+
+    /**
+     * На сколько транзакция изменила баланс аккаунта
+     */
+    public long delta(Account of) {
+        return (of == recipient ? sum : 0) - (of == account ? sum : 0);
+    }
+
+    @Override
+    public String toString() {
+        return id + ": " + account + " -> " + recipient + " " + sum + " at " + date;
     }
 }
@@ -0,0 +1,190 @@
+package ru.mail.polis.homework.collections.streams.account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import ru.mail.polis.homework.collections.streams.IntTopK;
+
+/**
+ * Колоночное хранилище транзакций для аналитических запросов {@link Task}.
+ *
+ * Вместо объекта на каждую транзакцию (со ссылками на аккаунты и Long суммой) транзакция - это номер
+ * строки в параллельных массивах: айди транзакции, время, номер исходящего аккаунта, номер аккаунта
+ * получателя и сумма, 24 байта + ссылка на айди. Айди аккаунтов закодированы словарем: строка хранится
+ * один раз, в транзакциях - ее номер. Запросы - это последовательный проход по примитивным массивам
+ * через IntStream. Не потокобезопасно.
+ */
+public class TransactionStore {
+
+    private final Map<String, Integer> accountIndex = new HashMap<>();
+    private String[] accountIds = new String[16];
+    private long[] balances = new long[16];
+    /**
+     * Добавлен ли аккаунт через addAccount. Аккаунты, которые встретились только в транзакциях,
+     * учитываются в балансах, но не участвуют в рейтинге topBalancesExceptRichest
+     */
+    private boolean[] listed = new boolean[16];
+    private int accounts;
+
+    private String[] ids = new String[16];
+    private long[] dates = new long[16];
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private long[] amounts = new long[16];
+    private int size;
+
+    /**
+     * Хранилище со всеми аккаунтами и всеми их транзакциями (транзакция, которая есть у обоих
+     * аккаунтов, добавляется один раз). Аккаунты, которых нет в accounts, но которые участвуют
+     * в транзакциях, добавляются с нулевым балансом и, как и в Task, не попадают в рейтинг балансов.
+     */
+    public static TransactionStore of(Collection<Account> accounts) {
+        TransactionStore store = new TransactionStore();
+        accounts.forEach(account -> store.addAccount(account.getId(), account.getBalance()));
+        Set<Transaction> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        accounts.stream()
+                .flatMap(account -> account.getTransactions().stream())
+                .filter(added::add)
+                .forEach(transaction -> store.addTransaction(transaction.getId(), transaction.getDate(),
+                        transaction.getAccount().getId(), transaction.getRecipient().getId(), transaction.getSum()));
+        return store;
+    }
+
+    /**
+     * Добавляет аккаунт или меняет баланс уже добавленного
+     *
+     * @return - номер аккаунта в словаре
+     */
+    public int addAccount(String id, long balance) {
+        int account = encode(id);
+        balances[account] = balance;
+        listed[account] = true;
+        return account;
+    }
+
+    /**
+     * Сложность - амортизированное О(1)
+     */
+    public void addTransaction(String id, long date, String fromAccount, String toAccount, long amount) {
+        if (size == dates.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+        ids[size] = id;
+        dates[size] = date;
+        from[size] = encode(fromAccount);
+        to[size] = encode(toAccount);
+        amounts[size] = amount;
+        size++;
+    }
+
+    /**
+     * Сумма исходящих транзакций по аккаунтам, у которых они есть
+     * Сложность - О(количество транзакций + количество аккаунтов)
+     */
+    public Map<String, Long> paymentsSumByAccount() {
+        long[] sums = new long[accounts];
+        boolean[] paid = new boolean[accounts];
+        IntStream.range(0, size).forEach(i -> {
+            sums[from[i]] += amounts[i];
+            paid[from[i]] = true;
+        });
+        return IntStream.range(0, accounts)
+                .filter(account -> paid[account])
+                .boxed()
+                .collect(Collectors.toMap(account -> accountIds[account], account -> sums[account]));
+    }
+
+    /**
+     * Балансы всех аккаунтов на момент t по номеру аккаунта, транзакции в момент t уже учтены
+     * Сложность - О(количество транзакций + количество аккаунтов)
+     */
+    long[] balancesAt(long t) {
+        long[] result = Arrays.copyOf(balances, accounts);
+        IntStream.range(0, size)
+                .filter(i -> dates[i] > t)
+                .forEach(i -> {
+                    result[to[i]] -= amounts[i];
+                    result[from[i]] += amounts[i];
+                });
+        return result;
+    }
+
+    public long balanceAt(String accountId, long t) {
+        Integer account = accountIndex.get(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("unknown account " + accountId);
+        }
+        return balancesAt(t)[account];
+    }
+
+    /**
+     * То же, что {@link Task#paymentsSumByAccount(List, long, int)}: рейтинг только среди аккаунтов,
+     * добавленных через addAccount. n + 1 самых богатых отбираются кучей номеров аккаунтов без сортировки
+     * всех аккаунтов.
+     * Сложность - О(количество транзакций + A log n), A - количество аккаунтов
+     */
+    public List<String> topBalancesExceptRichest(long t, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n = " + n);
+        }
+        long[] current = balancesAt(t);
+        IntTopK top = new IntTopK((int) Math.min((long) n + 1, accounts), (a, b) -> current[a] != current[b]
+                ? Long.compare(current[b], current[a])
+                : accountIds[a].compareTo(accountIds[b]));
+        for (int account = 0; account < accounts; account++) {
+            if (listed[account]) {
+                top.offer(account);
+            }
+        }
+        int[] richest = top.drain();
+        List<String> result = new ArrayList<>(Math.max(0, richest.length - 1));
+        for (int i = 1; i < richest.length; i++) {
+            result.add(accountIds[richest[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Айди транзакции в строке row
+     */
+    public String transactionId(int row) {
+        return ids[row];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int accounts() {
+        return accounts;
+    }
+
+    private int encode(String id) {
+        Integer account = accountIndex.get(id);
+        if (account != null) {
+            return account;
+        }
+        if (accounts == accountIds.length) {
+            accountIds = Arrays.copyOf(accountIds, accounts * 2);
+            balances = Arrays.copyOf(balances, accounts * 2);
+            listed = Arrays.copyOf(listed, accounts * 2);
+        }
+        accountIds[accounts] = id;
+        accountIndex.put(id, accounts);
+        return accounts++;
+    }
+}
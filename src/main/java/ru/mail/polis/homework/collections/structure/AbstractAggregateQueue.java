@@ -0,0 +1,151 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.lang.reflect.Array;
+import java.util.NoSuchElementException;
+
+/**
+ * Общая часть {@link IntAggregateQueue}, {@link LongAggregateQueue} и {@link DoubleAggregateQueue}.
+ *
+ * Это идея {@link MaxStack}, примененная к очереди из двух стеков: в каждом стеке рядом со значением
+ * хранится агрегат этого значения и всех, что лежат под ним. offer кладет в задний стек, poll берет из
+ * переднего, а когда передний пуст - перекладывает в него все из заднего. Агрегат очереди - это
+ * агрегат переднего стека, объединенный с агрегатом заднего. Коммутативность операций не требуется.
+ *
+ * Каждый стек - это массив строк из примитивов наследника: в строке 0 лежат значения, в строке i + 1 -
+ * агрегаты по i-й операции. Здесь хранятся размеры стеков, их рост и порядок перекладывания, а наследник
+ * только записывает одно значение и считает для него агрегаты своими операциями.
+ * Не потокобезопасна.
+ */
+abstract class AbstractAggregateQueue {
+
+    static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Номера операций очереди, созданной через maxMinSum()
+     */
+    static final int MAX = 0;
+    static final int MIN = 1;
+    static final int SUM = 2;
+
+    /**
+     * Строки заднего и переднего стеков, растут на месте, поэтому наследник может держать их типизированными
+     */
+    final Object[] backRows;
+    final Object[] frontRows;
+
+    int backSize;
+    int frontSize;
+
+    private final boolean maxMinSum;
+
+    /**
+     * @param type      - тип примитивов наследника
+     * @param operators - количество операций
+     * @param maxMinSum - операции - это max, min и sum, и доступны max(), min() и sum()
+     */
+    AbstractAggregateQueue(Class<?> type, int operators, boolean maxMinSum) {
+        if (operators == 0) {
+            throw new IllegalArgumentException("at least one operator is required");
+        }
+        this.backRows = (Object[]) Array.newInstance(type, operators + 1, INITIAL_CAPACITY);
+        this.frontRows = (Object[]) Array.newInstance(type, operators + 1, INITIAL_CAPACITY);
+        this.maxMinSum = maxMinSum;
+    }
+
+    public int size() {
+        return frontSize + backSize;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        frontSize = 0;
+        backSize = 0;
+    }
+
+    /**
+     * Занимает место для нового значения на вершине заднего стека
+     * @return - индекс этого места
+     */
+    final int pushBack() {
+        if (backSize == Array.getLength(backRows[0])) {
+            grow(backRows, backSize * 2);
+        }
+        return backSize++;
+    }
+
+    /**
+     * Может заменить строки переднего стека при перекладывании, поэтому индекс нужно получить
+     * до чтения строки
+     * @return - индекс самого старого элемента на вершине переднего стека
+     */
+    final int frontTop() {
+        if (frontSize == 0) {
+            transfer();
+        }
+        return frontSize - 1;
+    }
+
+    /**
+     * Снимает самый старый элемент с вершины переднего стека
+     * @return - индекс, где лежит его значение
+     */
+    final int popFront() {
+        frontSize = frontTop();
+        return frontSize;
+    }
+
+    final void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    /**
+     * @return - номер операции max, min или sum
+     * @throws IllegalStateException - очередь создана не через maxMinSum()
+     */
+    final int maxMinSumIndex(int index) {
+        if (!maxMinSum) {
+            throw new IllegalStateException("queue is not created by maxMinSum()");
+        }
+        return index;
+    }
+
+    /**
+     * Переложить значение с индексом from заднего стека на место to переднего. Его агрегат - это оно само,
+     * объединенное со всеми более новыми значениями под ним, то есть с агрегатом to - 1.
+     */
+    abstract void moveToFront(int from, int to);
+
+    private void transfer() {
+        if (backSize == 0) {
+            throw new NoSuchElementException();
+        }
+        int capacity = Array.getLength(frontRows[0]);
+        if (capacity < backSize) {
+            while (capacity < backSize) {
+                capacity *= 2;
+            }
+            grow(frontRows, capacity);
+        }
+        for (int front = 0; front < backSize; front++) {
+            moveToFront(backSize - 1 - front, front);
+        }
+        frontSize = backSize;
+        backSize = 0;
+    }
+
+    /**
+     * Заменяет каждую строку стека копией длины capacity. Сам массив строк не меняется.
+     */
+    private static void grow(Object[] rows, int capacity) {
+        for (int i = 0; i < rows.length; i++) {
+            Object row = Array.newInstance(rows[i].getClass().getComponentType(), capacity);
+            System.arraycopy(rows[i], 0, row, 0, Array.getLength(rows[i]));
+            rows[i] = row;
+        }
+    }
+}
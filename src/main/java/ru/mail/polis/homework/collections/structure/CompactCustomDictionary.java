@@ -0,0 +1,325 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Компактный вариант {@link CustomDictionary} с тем же поведением, для словарей из миллионов коротких слов.
+ *
+ * Строки не хранятся как объекты String: символы всех слов лежат подряд в одном массиве char[],
+ * слово - это номер, по которому в параллельных массивах int[] лежат смещение, длина, хеш набора букв
+ * и номер следующего слова с тем же набором букв. Индекс по набору букв - таблица с открытой адресацией
+ * (линейное пробирование) из номеров первого слова в цепочке. Объекты String создаются только в
+ * getSimilarWords для возвращаемого списка.
+ *
+ * L - длина переданной строки, K - количество сохраненных строк с тем же набором букв.
+ */
+public class CompactCustomDictionary implements SimilarWordsDictionary {
+
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+    private static final int NONE = -1;
+
+    private char[] arena = new char[256];
+    private int arenaSize;
+    /**
+     * Сколько символов в arena занимают удаленные слова
+     */
+    private int garbage;
+
+    private int[] offsets = new int[16];
+    private int[] lengths = new int[16];
+    private int[] hashes = new int[16];
+    /**
+     * Следующее слово с тем же набором букв, а для удаленных слов - следующий свободный номер
+     */
+    private int[] next = new int[16];
+    private int idCount;
+    private int freeId = NONE;
+
+    private int[] table = newTable(16);
+    /**
+     * Занятые ячейки таблицы, включая DELETED
+     */
+    private int occupied;
+    private int size;
+
+    private char[] scratch = new char[16];
+
+    /**
+     * Сложность - [O(L log L + K)]
+     */
+    @Override
+    public boolean add(String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("value must be not empty");
+        }
+        char[] signature = signatureChars(value);
+        int hash = hash(signature);
+        int slot = find(signature, hash);
+        if (slot >= 0 && indexOf(table[slot], value) != NONE) {
+            return false;
+        }
+        int id = store(value, hash);
+        next[id] = NONE;
+        if (slot >= 0) {
+            int last = table[slot];
+            while (next[last] != NONE) {
+                last = next[last];
+            }
+            next[last] = id;
+        } else {
+            insert(id);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Сложность - [O(L log L + K)]
+     */
+    @Override
+    public boolean contains(String value) {
+        if (value == null) {
+            return false;
+        }
+        char[] signature = signatureChars(value);
+        int slot = find(signature, hash(signature));
+        return slot >= 0 && indexOf(table[slot], value) != NONE;
+    }
+
+    /**
+     * Сложность - [O(L log L + K)]
+     */
+    @Override
+    public boolean remove(String value) {
+        if (value == null) {
+            return false;
+        }
+        char[] signature = signatureChars(value);
+        int slot = find(signature, hash(signature));
+        if (slot < 0) {
+            return false;
+        }
+        int prev = NONE;
+        for (int id = table[slot]; id != NONE; prev = id, id = next[id]) {
+            if (equals(id, value)) {
+                if (prev == NONE) {
+                    table[slot] = next[id] == NONE ? DELETED : next[id];
+                } else {
+                    next[prev] = next[id];
+                }
+                release(id);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Сложность - [O(L log L + K)]
+     */
+    @Override
+    public List<String> getSimilarWords(String value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        char[] signature = signatureChars(value);
+        int slot = find(signature, hash(signature));
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (int id = table[slot]; id != NONE; id = next[id]) {
+            result.add(new String(arena, offsets[id], lengths[id]));
+        }
+        return result;
+    }
+
+    /**
+     * Сложность - [O(1)]
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ищет ячейку таблицы с цепочкой слов с таким же набором букв
+     *
+     * @return - номер ячейки или -1
+     */
+    private int find(char[] signature, int hash) {
+        int mask = table.length - 1;
+        for (int i = hash & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            int head = table[i];
+            if (head >= 0 && hashes[head] == hash && sameSignature(head, signature)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int id) {
+        if ((occupied + 1) * 2 > table.length) {
+            rehash();
+        }
+        int mask = table.length - 1;
+        int i = hashes[id] & mask;
+        while (table[i] >= 0) {
+            i = (i + 1) & mask;
+        }
+        if (table[i] == EMPTY) {
+            occupied++;
+        }
+        table[i] = id;
+    }
+
+    /**
+     * Перестраивает таблицу без DELETED ячеек, увеличивая ее, если живых цепочек больше четверти
+     */
+    private void rehash() {
+        int[] old = table;
+        int heads = 0;
+        for (int head : old) {
+            if (head >= 0) {
+                heads++;
+            }
+        }
+        table = newTable(heads * 4 > old.length ? old.length * 2 : old.length);
+        occupied = 0;
+        int mask = table.length - 1;
+        for (int head : old) {
+            if (head >= 0) {
+                int i = hashes[head] & mask;
+                while (table[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = head;
+                occupied++;
+            }
+        }
+    }
+
+    private int indexOf(int head, String value) {
+        for (int id = head; id != NONE; id = next[id]) {
+            if (equals(id, value)) {
+                return id;
+            }
+        }
+        return NONE;
+    }
+
+    private boolean equals(int id, String value) {
+        if (lengths[id] != value.length()) {
+            return false;
+        }
+        int offset = offsets[id];
+        for (int i = 0; i < lengths[id]; i++) {
+            if (arena[offset + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameSignature(int id, char[] signature) {
+        int length = lengths[id];
+        if (length != signature.length) {
+            return false;
+        }
+        if (scratch.length < length) {
+            scratch = new char[Math.max(length, scratch.length * 2)];
+        }
+        int offset = offsets[id];
+        for (int i = 0; i < length; i++) {
+            scratch[i] = Character.toLowerCase(arena[offset + i]);
+        }
+        Arrays.sort(scratch, 0, length);
+        for (int i = 0; i < length; i++) {
+            if (scratch[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int store(String value, int hash) {
+        if (garbage > arenaSize / 2 && arenaSize > 1024) {
+            compact();
+        }
+        int length = value.length();
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + length, arena.length * 2));
+        }
+        value.getChars(0, length, arena, arenaSize);
+
+        int id;
+        if (freeId != NONE) {
+            id = freeId;
+            freeId = next[id];
+        } else {
+            if (idCount == offsets.length) {
+                int capacity = idCount * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                next = Arrays.copyOf(next, capacity);
+            }
+            id = idCount++;
+        }
+        offsets[id] = arenaSize;
+        lengths[id] = length;
+        hashes[id] = hash;
+        arenaSize += length;
+        return id;
+    }
+
+    private void release(int id) {
+        garbage += lengths[id];
+        lengths[id] = 0;
+        next[id] = freeId;
+        freeId = id;
+    }
+
+    /**
+     * Переписывает живые слова в новый массив, выбрасывая символы удаленных
+     */
+    private void compact() {
+        char[] compacted = new char[Math.max(256, (arenaSize - garbage) * 2)];
+        int position = 0;
+        for (int head : table) {
+            for (int id = head; id >= 0; id = next[id]) {
+                System.arraycopy(arena, offsets[id], compacted, position, lengths[id]);
+                offsets[id] = position;
+                position += lengths[id];
+            }
+        }
+        arena = compacted;
+        arenaSize = position;
+        garbage = 0;
+    }
+
+    private static char[] signatureChars(String value) {
+        char[] chars = new char[value.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(value.charAt(i));
+        }
+        Arrays.sort(chars);
+        return chars;
+    }
+
+    private static int hash(char[] signature) {
+        int h = Arrays.hashCode(signature);
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасный вариант {@link CustomDictionary}, у которого чтения никогда не ждут писателей.
+ *
+ * Индекс по набору букв - ConcurrentHashMap, значения в котором - неизменяемые множества слов (copy-on-write
+ * на уровне одной корзины). add/remove заменяют множество целиком внутри compute, поэтому писатели одной корзины
+ * выполняются по очереди, а писатели разных корзин не мешают друг другу. contains/getSimilarWords
+ * читают текущее множество без блокировок и всегда видят согласованный снимок корзины.
+ *
+ * L - длина переданной строки, K - количество сохраненных строк с тем же набором букв.
+ */
+public class ConcurrentCustomDictionary implements SimilarWordsDictionary {
+
+    private final ConcurrentMap<String, Set<String>> words = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Сложность - [O(L log L + K)]
+     */
+    @Override
+    public boolean add(String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("value must be not empty");
+        }
+        boolean[] added = new boolean[1];
+        words.compute(CustomDictionary.signature(value), (key, similar) -> {
+            if (similar != null && similar.contains(value)) {
+                return similar;
+            }
+            Set<String> updated = similar == null ? new LinkedHashSet<>() : new LinkedHashSet<>(similar);
+            updated.add(value);
+            added[0] = true;
+            return Collections.unmodifiableSet(updated);
+        });
+        if (added[0]) {
+            size.incrementAndGet();
+        }
+        return added[0];
+    }
+
+    /**
+     * Без блокировок.
+     * Сложность - [O(L log L)]
+     */
+    @Override
+    public boolean contains(String value) {
+        if (value == null) {
+            return false;
+        }
+        Set<String> similar = words.get(CustomDictionary.signature(value));
+        return similar != null && similar.contains(value);
+    }
+
+    /**
+     * Сложность - [O(L log L + K)]
+     */
+    @Override
+    public boolean remove(String value) {
+        if (value == null) {
+            return false;
+        }
+        boolean[] removed = new boolean[1];
+        words.computeIfPresent(CustomDictionary.signature(value), (key, similar) -> {
+            if (!similar.contains(value)) {
+                return similar;
+            }
+            removed[0] = true;
+            if (similar.size() == 1) {
+                return null;
+            }
+            Set<String> updated = new LinkedHashSet<>(similar);
+            updated.remove(value);
+            return Collections.unmodifiableSet(updated);
+        });
+        if (removed[0]) {
+            size.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    /**
+     * Без блокировок, возвращает снимок корзины на момент чтения.
+     * Сложность - [O(L log L + K)]
+     */
+    @Override
+    public List<String> getSimilarWords(String value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        Set<String> similar = words.get(CustomDictionary.signature(value));
+        return similar == null ? Collections.emptyList() : new ArrayList<>(similar);
+    }
+
+    /**
+     * Сложность - [O(1)]
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+}
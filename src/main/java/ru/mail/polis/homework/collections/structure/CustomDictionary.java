@@ -1,25 +1,45 @@
 package ru.mail.polis.homework.collections.structure;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Задание оценивается в 4 балла.
  * Необходимо реализовать класс которы умеет хранить строки и возвращать
  * список строк состоящий из того же набора буков, что ему передали строку.
  * Напишите какая сложность операций у вас получилась для каждого метода.
+ *
+ * Строки хранятся в индексе: ключ - отсортированные буквы строки в нижнем регистре, значение - все
+ * сохраненные строки с таким набором букв. Дальше L - длина переданной строки, K - количество
+ * сохраненных строк с тем же набором букв.
  */
-public class CustomDictionary {
+public class CustomDictionary implements SimilarWordsDictionary {
+
+    private final Map<String, Set<String>> words = new HashMap<>();
+    private int size;
 
     /**
      * Сохранить строку в структуру данных
      * @param value - передаваемая строка
      * @return - успешно сохранили строку или нет.
      *
-     * Сложность - []
+     * Сложность - [O(L log L)]
      */
     public boolean add(String value) {
-        return false;
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("value must be not empty");
+        }
+        if (!words.computeIfAbsent(signature(value), k -> new LinkedHashSet<>()).add(value)) {
+            return false;
+        }
+        size++;
+        return true;
     }
 
     /**
@@ -27,10 +47,14 @@ public class CustomDictionary {
      * @param value - передаваемая строка
      * @return - есть такая строка или нет в нашей структуре
      *
-     * Сложность - []
+     * Сложность - [O(L log L)]
      */
     public boolean contains(String value) {
-        return false;
+        if (value == null) {
+            return false;
+        }
+        Set<String> similar = words.get(signature(value));
+        return similar != null && similar.contains(value);
     }
 
     /**
@@ -38,10 +62,22 @@ public class CustomDictionary {
      * @param value - какую строку мы хотим удалить
      * @return - true если удалили, false - если такой строки нет
      *
-     * Сложность - []
+     * Сложность - [O(L log L)]
      */
     public boolean remove(String value) {
-        return false;
+        if (value == null) {
+            return false;
+        }
+        String signature = signature(value);
+        Set<String> similar = words.get(signature);
+        if (similar == null || !similar.remove(value)) {
+            return false;
+        }
+        if (similar.isEmpty()) {
+            words.remove(signature);
+        }
+        size--;
+        return true;
     }
 
     /**
@@ -61,21 +97,36 @@ public class CustomDictionary {
      * @return - список слов которые состоят из тех же букв, что и передаваемая
      * строка.
      *
-     * Сложность - []
+     * Сложность - [O(L log L + K)]
      */
     public List<String> getSimilarWords(String value) {
-        return Collections.emptyList();
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        Set<String> similar = words.get(signature(value));
+        return similar == null ? Collections.emptyList() : new ArrayList<>(similar);
     }
 
     /**
      * Колл-во хранимых строк.
      * @return - Колл-во хранимых строк.
      *
-     * Сложность - []
+     * Сложность - [O(1)]
      */
     public int size() {
-        return 0;
+        return size;
     }
 
+    /**
+     * Набор букв строки без учета регистра: все символы в нижнем регистре, отсортированные по возрастанию.
+     */
+    static String signature(String value) {
+        char[] chars = new char[value.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(value.charAt(i));
+        }
+        Arrays.sort(chars);
+        return new String(chars);
+    }
 
 }
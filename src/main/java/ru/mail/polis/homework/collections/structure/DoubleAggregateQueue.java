@@ -0,0 +1,114 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * То же, что {@link IntAggregateQueue}, для примитивных double.
+ * Сложение double не строго ассоциативно, поэтому sum может отличаться от последовательной суммы
+ * на ошибку округления.
+ */
+public class DoubleAggregateQueue extends AbstractAggregateQueue {
+
+    private final DoubleBinaryOperator[] operators;
+
+    private final double[][] back;
+    private final double[][] front;
+
+    /**
+     * @param operators - ассоциативные операции, агрегат по i-й из них возвращает aggregate(i)
+     */
+    public DoubleAggregateQueue(DoubleBinaryOperator... operators) {
+        this(false, operators);
+    }
+
+    private DoubleAggregateQueue(boolean maxMinSum, DoubleBinaryOperator... operators) {
+        super(double.class, operators.length, maxMinSum);
+        this.operators = operators.clone();
+        this.back = (double[][]) backRows;
+        this.front = (double[][]) frontRows;
+    }
+
+    /**
+     * Очередь с агрегатами max(), min() и sum()
+     */
+    public static DoubleAggregateQueue maxMinSum() {
+        return new DoubleAggregateQueue(true, Math::max, Math::min, Double::sum);
+    }
+
+    public void offer(double value) {
+        int top = pushBack();
+        back[0][top] = value;
+        for (int i = 0; i < operators.length; i++) {
+            back[i + 1][top] = top == 0
+                    ? value
+                    : operators[i].applyAsDouble(back[i + 1][top - 1], value);
+        }
+    }
+
+    /**
+     * Удаляет и возвращает самый старый элемент
+     */
+    public double poll() {
+        int top = popFront();
+        return front[0][top];
+    }
+
+    /**
+     * Возвращает самый старый элемент
+     */
+    public double peek() {
+        int top = frontTop();
+        return front[0][top];
+    }
+
+    /**
+     * Агрегат по operators[index] всех элементов очереди от старых к новым.
+     * Сложность - О(1)
+     */
+    public double aggregate(int index) {
+        checkNotEmpty();
+        if (frontSize == 0) {
+            return back[index + 1][backSize - 1];
+        }
+        if (backSize == 0) {
+            return front[index + 1][frontSize - 1];
+        }
+        return operators[index].applyAsDouble(front[index + 1][frontSize - 1], back[index + 1][backSize - 1]);
+    }
+
+    public double aggregate() {
+        return aggregate(0);
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public double max() {
+        return aggregate(maxMinSumIndex(MAX));
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public double min() {
+        return aggregate(maxMinSumIndex(MIN));
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public double sum() {
+        return aggregate(maxMinSumIndex(SUM));
+    }
+
+    @Override
+    void moveToFront(int from, int to) {
+        double value = back[0][from];
+        front[0][to] = value;
+        for (int i = 0; i < operators.length; i++) {
+            front[i + 1][to] = to == 0
+                    ? value
+                    : operators[i].applyAsDouble(value, front[i + 1][to - 1]);
+        }
+    }
+}
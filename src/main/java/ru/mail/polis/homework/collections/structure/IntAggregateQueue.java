@@ -0,0 +1,115 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Очередь примитивных int, которая за амортизированное О(1) возвращает агрегаты (max, min, sum или любую
+ * другую ассоциативную операцию) по всем своим элементам. Подходит для скользящего окна: offer нового
+ * значения + poll самого старого, когда окно переполнено. Устройство описано в {@link AbstractAggregateQueue}.
+ * Не потокобезопасна.
+ */
+public class IntAggregateQueue extends AbstractAggregateQueue {
+
+    private final IntBinaryOperator[] operators;
+
+    private final int[][] back;
+    private final int[][] front;
+
+    /**
+     * @param operators - ассоциативные операции, агрегат по i-й из них возвращает aggregate(i)
+     */
+    public IntAggregateQueue(IntBinaryOperator... operators) {
+        this(false, operators);
+    }
+
+    private IntAggregateQueue(boolean maxMinSum, IntBinaryOperator... operators) {
+        super(int.class, operators.length, maxMinSum);
+        this.operators = operators.clone();
+        this.back = (int[][]) backRows;
+        this.front = (int[][]) frontRows;
+    }
+
+    /**
+     * Очередь с агрегатами max(), min() и sum()
+     */
+    public static IntAggregateQueue maxMinSum() {
+        return new IntAggregateQueue(true, Math::max, Math::min, Integer::sum);
+    }
+
+    public void offer(int value) {
+        int top = pushBack();
+        back[0][top] = value;
+        for (int i = 0; i < operators.length; i++) {
+            back[i + 1][top] = top == 0
+                    ? value
+                    : operators[i].applyAsInt(back[i + 1][top - 1], value);
+        }
+    }
+
+    /**
+     * Удаляет и возвращает самый старый элемент
+     */
+    public int poll() {
+        int top = popFront();
+        return front[0][top];
+    }
+
+    /**
+     * Возвращает самый старый элемент
+     */
+    public int peek() {
+        int top = frontTop();
+        return front[0][top];
+    }
+
+    /**
+     * Агрегат по operators[index] всех элементов очереди от старых к новым.
+     * Сложность - О(1)
+     */
+    public int aggregate(int index) {
+        checkNotEmpty();
+        if (frontSize == 0) {
+            return back[index + 1][backSize - 1];
+        }
+        if (backSize == 0) {
+            return front[index + 1][frontSize - 1];
+        }
+        return operators[index].applyAsInt(front[index + 1][frontSize - 1], back[index + 1][backSize - 1]);
+    }
+
+    public int aggregate() {
+        return aggregate(0);
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public int max() {
+        return aggregate(maxMinSumIndex(MAX));
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public int min() {
+        return aggregate(maxMinSumIndex(MIN));
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public int sum() {
+        return aggregate(maxMinSumIndex(SUM));
+    }
+
+    @Override
+    void moveToFront(int from, int to) {
+        int value = back[0][from];
+        front[0][to] = value;
+        for (int i = 0; i < operators.length; i++) {
+            front[i + 1][to] = to == 0
+                    ? value
+                    : operators[i].applyAsInt(value, front[i + 1][to - 1]);
+        }
+    }
+}
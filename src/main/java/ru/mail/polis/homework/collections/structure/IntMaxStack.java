@@ -0,0 +1,71 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * Стек примитивных int с получением максимума за О(1), без боксинга и без синхронизации Vector.
+ * Значения и максимум на момент добавления каждого значения лежат в параллельных массивах,
+ * которые увеличиваются в 2 раза при заполнении. Все операции - О(1), после того как массивы
+ * выросли до рабочего размера, никаких аллокаций нет.
+ * Не потокобезопасен.
+ */
+public class IntMaxStack {
+
+    private int[] values;
+    private int[] maxValues;
+    private int size;
+
+    public IntMaxStack() {
+        this(16);
+    }
+
+    public IntMaxStack(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        values = new int[capacity];
+        maxValues = new int[capacity];
+    }
+
+    public void push(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            maxValues = Arrays.copyOf(maxValues, size * 2);
+        }
+        values[size] = value;
+        maxValues[size] = size == 0 ? value : Math.max(value, maxValues[size - 1]);
+        size++;
+    }
+
+    public int pop() {
+        checkNotEmpty();
+        return values[--size];
+    }
+
+    public int peek() {
+        checkNotEmpty();
+        return values[size - 1];
+    }
+
+    public int getMaxValue() {
+        checkNotEmpty();
+        return maxValues[size - 1];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * То же, что {@link IntAggregateQueue}, для примитивных long.
+ */
+public class LongAggregateQueue extends AbstractAggregateQueue {
+
+    private final LongBinaryOperator[] operators;
+
+    private final long[][] back;
+    private final long[][] front;
+
+    /**
+     * @param operators - ассоциативные операции, агрегат по i-й из них возвращает aggregate(i)
+     */
+    public LongAggregateQueue(LongBinaryOperator... operators) {
+        this(false, operators);
+    }
+
+    private LongAggregateQueue(boolean maxMinSum, LongBinaryOperator... operators) {
+        super(long.class, operators.length, maxMinSum);
+        this.operators = operators.clone();
+        this.back = (long[][]) backRows;
+        this.front = (long[][]) frontRows;
+    }
+
+    /**
+     * Очередь с агрегатами max(), min() и sum()
+     */
+    public static LongAggregateQueue maxMinSum() {
+        return new LongAggregateQueue(true, Math::max, Math::min, Long::sum);
+    }
+
+    public void offer(long value) {
+        int top = pushBack();
+        back[0][top] = value;
+        for (int i = 0; i < operators.length; i++) {
+            back[i + 1][top] = top == 0
+                    ? value
+                    : operators[i].applyAsLong(back[i + 1][top - 1], value);
+        }
+    }
+
+    /**
+     * Удаляет и возвращает самый старый элемент
+     */
+    public long poll() {
+        int top = popFront();
+        return front[0][top];
+    }
+
+    /**
+     * Возвращает самый старый элемент
+     */
+    public long peek() {
+        int top = frontTop();
+        return front[0][top];
+    }
+
+    /**
+     * Агрегат по operators[index] всех элементов очереди от старых к новым.
+     * Сложность - О(1)
+     */
+    public long aggregate(int index) {
+        checkNotEmpty();
+        if (frontSize == 0) {
+            return back[index + 1][backSize - 1];
+        }
+        if (backSize == 0) {
+            return front[index + 1][frontSize - 1];
+        }
+        return operators[index].applyAsLong(front[index + 1][frontSize - 1], back[index + 1][backSize - 1]);
+    }
+
+    public long aggregate() {
+        return aggregate(0);
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public long max() {
+        return aggregate(maxMinSumIndex(MAX));
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public long min() {
+        return aggregate(maxMinSumIndex(MIN));
+    }
+
+    /**
+     * Только для очереди из maxMinSum()
+     */
+    public long sum() {
+        return aggregate(maxMinSumIndex(SUM));
+    }
+
+    @Override
+    void moveToFront(int from, int to) {
+        long value = back[0][from];
+        front[0][to] = value;
+        for (int i = 0; i < operators.length; i++) {
+            front[i + 1][to] = to == 0
+                    ? value
+                    : operators[i].applyAsLong(value, front[i + 1][to - 1]);
+        }
+    }
+}
@@ -1,17 +1,177 @@
 package ru.mail.polis.homework.collections.structure;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Stack;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * Задание оценивается в 2 балла.
  * Надо расширить стандартный класс Stack методом getMaxValue().
  * Этот метод должен возвращать какое максимальное значение сейчас
  * храниться в Stack. Отрабатывать метод должен за О(1).
+ *
+ * Класс оставлен для совместимости с API Stack, максимумы хранятся в {@link IntMaxStack}: в нем лежат
+ * нижние элементы стека, для которых максимумы уже посчитаны. Добавления в вершину досчитываются
+ * в getMaxValue, а любое изменение в середине (методы Vector, итераторы, subList) отбрасывает максимумы
+ * начиная с измененной позиции. Поэтому push, pop и getMaxValue - амортизированное О(1), а после
+ * изменения элемента с индексом i следующий getMaxValue - О(size - i).
+ * Пока в стеке лежит null, getMaxValue бросает NullPointerException.
+ * Если не нужен именно java.util.Stack, то лучше сразу использовать IntMaxStack.
  */
 public class MaxStack extends Stack<Integer> {
 
-    public Integer getMaxValue() {
-        return 0;
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Нижние values.size() элементов стека и максимумы для них, восстанавливается после десериализации
+     */
+    private transient IntMaxStack values = new IntMaxStack();
+
+    @Override
+    public synchronized Integer pop() {
+        Integer item = peek();
+        removeElementAt(elementCount - 1);
+        return item;
+    }
+
+    public synchronized Integer getMaxValue() {
+        for (int i = values.size(); i < elementCount; i++) {
+            values.push((Integer) elementData[i]);
+        }
+        return values.getMaxValue();
+    }
+
+    @Override
+    public synchronized void removeElementAt(int index) {
+        super.removeElementAt(index);
+        invalidate(index);
+    }
+
+    @Override
+    public synchronized Integer remove(int index) {
+        Integer item = super.remove(index);
+        invalidate(index);
+        return item;
+    }
+
+    @Override
+    public synchronized void insertElementAt(Integer obj, int index) {
+        super.insertElementAt(obj, index);
+        invalidate(index);
+    }
+
+    @Override
+    public synchronized Integer set(int index, Integer element) {
+        Integer previous = super.set(index, element);
+        invalidate(index);
+        return previous;
+    }
+
+    @Override
+    public synchronized void setElementAt(Integer obj, int index) {
+        super.setElementAt(obj, index);
+        invalidate(index);
+    }
+
+    @Override
+    public synchronized void setSize(int newSize) {
+        super.setSize(newSize);
+        invalidate(newSize);
+    }
+
+    @Override
+    public synchronized void removeAllElements() {
+        super.removeAllElements();
+        invalidate(0);
+    }
+
+    @Override
+    public synchronized boolean addAll(int index, Collection<? extends Integer> c) {
+        try {
+            return super.addAll(index, c);
+        } finally {
+            invalidate(index);
+        }
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> c) {
+        try {
+            return super.removeAll(c);
+        } finally {
+            invalidate(0);
+        }
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> c) {
+        try {
+            return super.retainAll(c);
+        } finally {
+            invalidate(0);
+        }
+    }
+
+    @Override
+    public synchronized boolean removeIf(Predicate<? super Integer> filter) {
+        try {
+            return super.removeIf(filter);
+        } finally {
+            invalidate(0);
+        }
+    }
+
+    @Override
+    public synchronized void replaceAll(UnaryOperator<Integer> operator) {
+        try {
+            super.replaceAll(operator);
+        } finally {
+            invalidate(0);
+        }
+    }
+
+    @Override
+    public synchronized void sort(Comparator<? super Integer> c) {
+        try {
+            super.sort(c);
+        } finally {
+            invalidate(0);
+        }
+    }
+
+    @Override
+    protected synchronized void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        invalidate(fromIndex);
+    }
+
+    @Override
+    public synchronized Object clone() {
+        MaxStack clone = (MaxStack) super.clone();
+        clone.values = new IntMaxStack();
+        return clone;
+    }
+
+    /**
+     * Отбрасывает максимумы для элементов начиная с индекса from
+     */
+    private void invalidate(int from) {
+        if (from <= 0) {
+            values.clear();
+            return;
+        }
+        while (values.size() > from) {
+            values.pop();
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        values = new IntMaxStack();
     }
 
 }
@@ -1,7 +1,15 @@
 package ru.mail.polis.homework.collections.structure;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Задание оценивается в 2 балла.
@@ -11,19 +19,47 @@ import java.util.List;
  * переданное слово. Так же известно что слова, которые писались в структуру, изначально
  * делились пополам для записи в нее.
  * Отрабатывать метод должен за О(n).
+ *
+ * Чтобы не проходить по всем обрывкам на каждый запрос, структура хранит индекс: хеш обрывка -> позиции
+ * обрывков с таким хешем. Хеш - это String.hashCode, он полиномиальный, поэтому хеши всех подстрок
+ * слова считаются за О(1) после одного прохода по слову. Поиск слова длины L из двух частей стоит О(L)
+ * обращений к индексу плюс проверку найденных кандидатов, от количества обрывков в структуре не зависит.
+ *
+ * Для parts частей поиск - перебор с запоминанием неудачных состояний (начало части, номер части).
+ * Сначала для состояния без учета занятости обрывков проверяется, можно ли вообще дорезать остаток слова
+ * (это тоже запоминается), и перебор заходит только в такие состояния. Поэтому поиск стоит не больше
+ * О(L^2 * parts) обращений к индексу. Исключение - неудачи, в которых обрывок с нужным текстом нашелся,
+ * но все его копии уже заняты предыдущими частями: такие неудачи зависят от выбора предыдущих частей
+ * и не запоминаются, так что в худшем случае (много одинаковых обрывков, которых не хватает на все части)
+ * перебор остается экспоненциальным по parts.
+ *
+ * null можно добавить в структуру, но он не попадает в индекс и ни с чем не совпадает.
  */
 public class SearchInTheShredderList {
+    /**
+     * Пачки меньше этого размера ищутся в текущем потоке
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
     private List<String> partStrings = new ArrayList<>();
+    private final Map<Integer, Positions> index = new HashMap<>();
 
     public SearchInTheShredderList() {
     }
 
+    /**
+     * Обрывки копируются: индекс строится по ним, и список должен меняться только через add
+     */
     public SearchInTheShredderList(List<String> partStrings) {
-        this.partStrings = partStrings;
+        this.partStrings = new ArrayList<>(partStrings);
+        for (int i = 0; i < partStrings.size(); i++) {
+            addToIndex(partStrings.get(i), i);
+        }
     }
 
     public void add(String value) {
         partStrings.add(value);
+        addToIndex(value, partStrings.size() - 1);
     }
 
     public String get(int index) {
@@ -37,6 +73,224 @@ public class SearchInTheShredderList {
      * @return - либо массив с реальными позициями подстрок если нашли, либо - null
      */
     public int[] positionPartString(String value) {
-        return null;
+        return positionPartString(value, 2);
+    }
+
+    /**
+     * Ищем позиции parts разных подстрок, из которых по порядку составляется передаваемое слово.
+     * Подстроки могут быть любой длины, не обязательно половинами слова.
+     *
+     * @param value - передаваемое слово
+     * @param parts - на сколько частей слово было разрезано
+     * @return - либо массив с реальными позициями подстрок если нашли, либо - null
+     */
+    public int[] positionPartString(String value, int parts) {
+        if (value == null || parts < 2 || value.length() < parts) {
+            return null;
+        }
+        Search search = new Search(value, parts);
+        return search.find(0, 0) ? search.result : null;
+    }
+
+    /**
+     * Ищем позиции подстрок для каждого слова из values.
+     * Индекс обрывков уже построен, поэтому слова ищутся независимо друг от друга, и большие пачки
+     * делятся между потоками общего ForkJoinPool.
+     * Во время поиска в структуру нельзя добавлять обрывки.
+     *
+     * @return - результаты positionPartString в том же порядке, что и values
+     */
+    public List<int[]> positionPartStrings(Collection<String> values) {
+        return positionPartStrings(values, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * То же, что {@link #positionPartStrings(Collection)}, но в переданном пуле
+     */
+    public List<int[]> positionPartStrings(Collection<String> values, ForkJoinPool pool) {
+        String[] words = values.toArray(new String[0]);
+        int[][] result = new int[words.length][];
+        if (words.length < PARALLEL_THRESHOLD) {
+            new BatchSearch(words, result, 0, words.length).compute();
+        } else {
+            pool.invoke(new BatchSearch(words, result, 0, words.length));
+        }
+        return Arrays.asList(result);
+    }
+
+    private void addToIndex(String value, int position) {
+        if (value != null) {
+            index.computeIfAbsent(value.hashCode(), k -> new Positions()).add(position);
+        }
+    }
+
+    private static boolean contains(int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Поиск одного слова: хеши префиксов слова, выбранные обрывки и неудачные состояния
+     */
+    private class Search {
+        private static final int TAKEN = -2;
+
+        private final String value;
+        private final int[] prefixHashes;
+        private final int[] powers;
+        private final int[] result;
+        /**
+         * Неудачные состояния from * parts + depth, которые не зависят от выбора предыдущих частей
+         */
+        private final Set<Long> failed = new HashSet<>();
+        /**
+         * Можно ли дорезать слово из состояния, если не учитывать занятость обрывков
+         */
+        private final Map<Long, Boolean> completable = new HashMap<>();
+        /**
+         * Сколько раз обрывок с нужным текстом нашелся, но все его копии были заняты
+         */
+        private int taken;
+
+        Search(String value, int parts) {
+            int length = value.length();
+            this.value = value;
+            this.prefixHashes = new int[length + 1];
+            this.powers = new int[length + 1];
+            this.result = new int[parts];
+            powers[0] = 1;
+            for (int i = 0; i < length; i++) {
+                prefixHashes[i + 1] = prefixHashes[i] * 31 + value.charAt(i);
+                powers[i + 1] = powers[i] * 31;
+            }
+        }
+
+        /**
+         * Подбирает подстроку для части depth, начинающейся с символа from, и рекурсивно - для следующих частей.
+         * Все подходящие обрывки с одинаковым текстом взаимозаменяемы, поэтому для каждой длины части
+         * пробуем только первый еще не занятый.
+         */
+        boolean find(int from, int depth) {
+            long state = (long) from * result.length + depth;
+            if (failed.contains(state) || !isCompletable(from, depth)) {
+                return false;
+            }
+            int takenBefore = taken;
+            int length = value.length();
+            boolean last = depth == result.length - 1;
+            int maxEnd = length - (result.length - depth - 1);
+            for (int end = last ? length : from + 1; end <= maxEnd; end++) {
+                int hash = prefixHashes[end] - prefixHashes[from] * powers[end - from];
+                if (!last && !isCompletable(end, depth + 1)) {
+                    continue;
+                }
+                int position = firstFree(index.get(hash), from, end, depth);
+                if (position == TAKEN) {
+                    taken++;
+                } else if (position >= 0) {
+                    result[depth] = position;
+                    if (last || find(end, depth + 1)) {
+                        return true;
+                    }
+                }
+            }
+            if (taken == takenBefore) {
+                failed.add(state);
+            }
+            return false;
+        }
+
+        /**
+         * Есть ли такие длины частей depth и дальше, что каждая часть равна какому-то обрывку
+         */
+        private boolean isCompletable(int from, int depth) {
+            long state = (long) from * result.length + depth;
+            Boolean known = completable.get(state);
+            if (known != null) {
+                return known;
+            }
+            int length = value.length();
+            boolean last = depth == result.length - 1;
+            int maxEnd = length - (result.length - depth - 1);
+            boolean answer = false;
+            for (int end = last ? length : from + 1; end <= maxEnd && !answer; end++) {
+                int hash = prefixHashes[end] - prefixHashes[from] * powers[end - from];
+                answer = firstFree(index.get(hash), from, end, 0) != -1 && (last || isCompletable(end, depth + 1));
+            }
+            completable.put(state, answer);
+            return answer;
+        }
+
+        /**
+         * @return - первая позиция обрывка, равного value[from, end) и не занятого в result[0, depth),
+         * TAKEN, если такие обрывки есть, но все заняты, или -1
+         */
+        private int firstFree(Positions candidates, int from, int end, int depth) {
+            if (candidates == null) {
+                return -1;
+            }
+            boolean matched = false;
+            for (int i = 0; i < candidates.size; i++) {
+                int position = candidates.items[i];
+                String part = partStrings.get(position);
+                if (part.length() == end - from && value.startsWith(part, from)) {
+                    if (!contains(result, depth, position)) {
+                        return position;
+                    }
+                    matched = true;
+                }
+            }
+            return matched ? TAKEN : -1;
+        }
+    }
+
+    /**
+     * Ищет слова words[from, to), делит диапазон пополам, пока он больше PARALLEL_THRESHOLD
+     */
+    private class BatchSearch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] words;
+        private final int[][] result;
+        private final int from;
+        private final int to;
+
+        BatchSearch(String[] words, int[][] result, int from, int to) {
+            this.words = words;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    result[i] = positionPartString(words[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchSearch(words, result, from, middle), new BatchSearch(words, result, middle, to));
+        }
+    }
+
+    /**
+     * Список позиций без боксинга
+     */
+    private static class Positions {
+        private int[] items = new int[1];
+        private int size;
+
+        void add(int position) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = position;
+        }
     }
 }
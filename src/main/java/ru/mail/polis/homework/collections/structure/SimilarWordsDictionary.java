@@ -0,0 +1,31 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.List;
+
+/**
+ * Словарь, который хранит строки и ищет среди них строки из того же набора букв без учета регистра.
+ * Поведение всех методов описано в {@link CustomDictionary}, реализации отличаются только хранением
+ * и потокобезопасностью.
+ */
+public interface SimilarWordsDictionary {
+
+    /**
+     * Сохранить строку, пустая строка и null - IllegalArgumentException
+     * @return - true, если строки еще не было
+     */
+    boolean add(String value);
+
+    boolean contains(String value);
+
+    /**
+     * @return - true, если строка была и ее удалили
+     */
+    boolean remove(String value);
+
+    /**
+     * Сохраненные строки из того же набора букв, что и value, в порядке добавления
+     */
+    List<String> getSimilarWords(String value);
+
+    int size();
+}
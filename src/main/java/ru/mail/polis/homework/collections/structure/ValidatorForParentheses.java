@@ -1,5 +1,13 @@
 package ru.mail.polis.homework.collections.structure;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * Задание оценивается в 2 балла.
  * Одна из самых популярных задач.
@@ -11,10 +19,279 @@ package ru.mail.polis.homework.collections.structure;
  *      "Понедельники меня угнетают ((" - false
  *
  * Отрабатывать метод должен за О(n)
+ *
+ * Строка без скобок, как и null, считается неправильной.
+ * Для больших входных данных есть потоковая проверка: {@link Checker} принимает текст кусками,
+ * стек скобок - массив byte[], поэтому кроме глубины вложенности дополнительная память - О(1).
+ * Для больших строк в памяти есть параллельная проверка {@link #validateParallel(CharSequence)}.
  */
 public class ValidatorForParentheses {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Куски меньше этого размера при параллельной проверке обрабатываются в одном потоке
+     */
+    private static final int SEGMENT_SIZE = 1 << 16;
+
     public static boolean validate(String value) {
-        return false;
+        return validate((CharSequence) value);
+    }
+
+    public static boolean validate(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        return new Checker().feed(value).finish();
+    }
+
+    /**
+     * Читает reader кусками и останавливается на первой ошибке. Reader не закрывается.
+     */
+    public static boolean validateStream(Reader reader) throws IOException {
+        Checker checker = new Checker();
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while (!checker.hasMismatch() && (read = reader.read(buffer)) != -1) {
+            checker.feed(buffer, 0, read);
+        }
+        return checker.finish();
+    }
+
+    /**
+     * Проверяет байты из канала без декодирования. Подходит для любой кодировки, в которой символы скобок
+     * однобайтовые и не встречаются внутри других символов (ASCII, UTF-8, однобайтовые кодировки),
+     * смещение ошибки в {@link Checker} тогда считается в байтах. Канал не закрывается.
+     */
+    public static boolean validateStream(ReadableByteChannel channel) throws IOException {
+        Checker checker = new Checker();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (!checker.hasMismatch() && channel.read(buffer) != -1) {
+            buffer.flip();
+            checker.feed(buffer);
+            buffer.clear();
+        }
+        return checker.finish();
+    }
+
+    /**
+     * Параллельная проверка: строка делится на куски, для каждого куска считается {@link Segment},
+     * затем результаты объединяются попарно в общем ForkJoinPool. Результат всегда совпадает с validate.
+     */
+    public static boolean validateParallel(CharSequence value) {
+        return validateParallel(value, ForkJoinPool.commonPool());
+    }
+
+    public static boolean validateParallel(CharSequence value, ForkJoinPool pool) {
+        return validateParallel(value, pool, SEGMENT_SIZE);
+    }
+
+    static boolean validateParallel(CharSequence value, ForkJoinPool pool, int segmentSize) {
+        if (value == null) {
+            return false;
+        }
+        return pool.invoke(new SegmentTask(value, 0, value.length(), segmentSize)).isValid();
+    }
+
+    /**
+     * @return - номер открывающей скобки (0..3), закрывающей (4..7) или -1, если символ не скобка
+     */
+    static int bracketType(int c) {
+        switch (c) {
+            case '(':
+                return 0;
+            case '[':
+                return 1;
+            case '{':
+                return 2;
+            case '<':
+                return 3;
+            case ')':
+                return 4;
+            case ']':
+                return 5;
+            case '}':
+                return 6;
+            case '>':
+                return 7;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Потоковая проверка скобок: текст передается кусками через feed, результат - finish().
+     * После первой ошибки остальной текст игнорируется, её смещение от начала текста возвращает
+     * getMismatchOffset(): это лишняя или неподходящая закрывающая скобка, либо конец текста,
+     * если остались незакрытые скобки.
+     */
+    public static class Checker {
+        private byte[] stack = new byte[16];
+        private int depth;
+        private long offset;
+        private long mismatchOffset = -1;
+        private boolean hasBrackets;
+
+        public Checker feed(CharSequence chunk) {
+            for (int i = 0; i < chunk.length() && mismatchOffset < 0; i++) {
+                accept(chunk.charAt(i));
+            }
+            return this;
+        }
+
+        public Checker feed(char[] chunk, int from, int to) {
+            for (int i = from; i < to && mismatchOffset < 0; i++) {
+                accept(chunk[i]);
+            }
+            return this;
+        }
+
+        public Checker feed(ByteBuffer chunk) {
+            while (chunk.hasRemaining() && mismatchOffset < 0) {
+                accept(chunk.get() & 0xFF);
+            }
+            return this;
+        }
+
+        /**
+         * Завершает проверку.
+         *
+         * @return - true, если в тексте были скобки и все они правильно закрыты
+         */
+        public boolean finish() {
+            if (mismatchOffset < 0 && depth > 0) {
+                mismatchOffset = offset;
+            }
+            return mismatchOffset < 0 && hasBrackets;
+        }
+
+        public boolean hasMismatch() {
+            return mismatchOffset >= 0;
+        }
+
+        /**
+         * @return - смещение первой ошибки или -1, если ошибок пока нет
+         */
+        public long getMismatchOffset() {
+            return mismatchOffset;
+        }
+
+        private void accept(int c) {
+            int type = bracketType(c);
+            if (type >= 0) {
+                hasBrackets = true;
+                if (type < 4) {
+                    push((byte) type);
+                } else if (depth == 0 || stack[--depth] != type - 4) {
+                    mismatchOffset = offset;
+                    return;
+                }
+            }
+            offset++;
+        }
+
+        private void push(byte type) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = type;
+        }
+    }
+
+    /**
+     * Итог проверки куска текста. Если внутри куска скобки не ошибаются друг с другом, то после сокращения
+     * всех пар от него остаются только незакрытые закрывающие скобки (они должны закрыться кем-то левее),
+     * за которыми идут незакрытые открывающие (должны закрыться кем-то правее).
+     * Одних количеств скобок каждого типа недостаточно: "([)]" сбалансирована по каждому типу,
+     * поэтому хранятся сами последовательности типов. Объединение двух соседних кусков ассоциативно:
+     * открывающие левого сокращаются с закрывающими правого.
+     */
+    static class Segment {
+        private byte[] closers = new byte[0];
+        private int closersCount;
+        private byte[] openers = new byte[0];
+        private int openersCount;
+        private boolean broken;
+        private boolean hasBrackets;
+
+        static Segment of(CharSequence value, int from, int to) {
+            Segment segment = new Segment();
+            for (int i = from; i < to && !segment.broken; i++) {
+                int type = bracketType(value.charAt(i));
+                if (type < 0) {
+                    continue;
+                }
+                segment.hasBrackets = true;
+                if (type < 4) {
+                    segment.openers = append(segment.openers, segment.openersCount++, type);
+                } else if (segment.openersCount == 0) {
+                    segment.closers = append(segment.closers, segment.closersCount++, type - 4);
+                } else if (segment.openers[--segment.openersCount] != type - 4) {
+                    segment.broken = true;
+                }
+            }
+            return segment;
+        }
+
+        /**
+         * Объединяет этот кусок с куском, который идет сразу после него
+         */
+        Segment merge(Segment right) {
+            Segment result = new Segment();
+            result.hasBrackets = hasBrackets || right.hasBrackets;
+            result.broken = broken || right.broken;
+            int matched = Math.min(openersCount, right.closersCount);
+            for (int i = 0; i < matched && !result.broken; i++) {
+                result.broken = openers[openersCount - 1 - i] != right.closers[i];
+            }
+            if (result.broken) {
+                return result;
+            }
+            result.closersCount = closersCount + right.closersCount - matched;
+            result.closers = Arrays.copyOf(closers, result.closersCount);
+            System.arraycopy(right.closers, matched, result.closers, closersCount, right.closersCount - matched);
+            result.openersCount = openersCount - matched + right.openersCount;
+            result.openers = Arrays.copyOf(openers, result.openersCount);
+            System.arraycopy(right.openers, 0, result.openers, openersCount - matched, right.openersCount);
+            return result;
+        }
+
+        boolean isValid() {
+            return !broken && closersCount == 0 && openersCount == 0 && hasBrackets;
+        }
+
+        private static byte[] append(byte[] array, int size, int type) {
+            byte[] result = size == array.length ? Arrays.copyOf(array, Math.max(16, size * 2)) : array;
+            result[size] = (byte) type;
+            return result;
+        }
+    }
+
+    private static class SegmentTask extends RecursiveTask<Segment> {
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence value;
+        private final int from;
+        private final int to;
+        private final int segmentSize;
+
+        SegmentTask(CharSequence value, int from, int to, int segmentSize) {
+            this.value = value;
+            this.from = from;
+            this.to = to;
+            this.segmentSize = segmentSize;
+        }
+
+        @Override
+        protected Segment compute() {
+            if (to - from <= segmentSize) {
+                return Segment.of(value, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            SegmentTask left = new SegmentTask(value, from, middle, segmentSize);
+            left.fork();
+            Segment right = new SegmentTask(value, middle, to, segmentSize).compute();
+            return left.join().merge(right);
+        }
     }
 }
@@ -0,0 +1,192 @@
+package ru.mail.polis.homework.collections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentPopularMapTest {
+
+    private static final int OPERATIONS_PER_THREAD = 100_000;
+    private static final int KEYS = 100;
+
+    @Test
+    public void popularKey_operationCount() {
+        ConcurrentPopularMap<TestObject, TestObject> popularMap = new ConcurrentPopularMap<>();
+        TestObject key = new TestObject("key");
+        TestObject value = new TestObject("value");
+        popularMap.get(key);
+        popularMap.remove(key);
+        popularMap.put(key, value);
+        popularMap.put(key, value);
+        popularMap.get(key);
+        popularMap.remove(key);
+        popularMap.remove(key);
+        popularMap.put(key, value);
+        popularMap.remove(key);
+
+        assertEquals(key, popularMap.getPopularKey());
+        assertEquals(9, popularMap.getKeyPopularity(key));
+        assertEquals(value, popularMap.getPopularValue());
+        assertEquals(7, popularMap.getValuePopularity(value));
+    }
+
+    /**
+     * putAll учитывает каждую пару так же, как put: ключ, новое значение и старое значение
+     */
+    @Test
+    public void putAll_countsPopularity() {
+        ConcurrentPopularMap<Integer, Integer> popularMap = new ConcurrentPopularMap<>();
+        popularMap.put(1, 10);
+        Map<Integer, Integer> other = new HashMap<>();
+        other.put(1, 20);
+        other.put(2, 20);
+        other.put(3, 20);
+        popularMap.putAll(other);
+
+        assertEquals(3, popularMap.size());
+        assertEquals(2, popularMap.getKeyPopularity(1));
+        assertEquals(1, popularMap.getKeyPopularity(2));
+        assertEquals(Integer.valueOf(1), popularMap.getPopularKey());
+        assertEquals(2, popularMap.getValuePopularity(10));
+        assertEquals(3, popularMap.getValuePopularity(20));
+        assertEquals(Integer.valueOf(20), popularMap.getPopularValue());
+    }
+
+    @Test
+    public void oneThread() throws Exception {
+        execute(1);
+    }
+
+    @Test
+    public void fourThreads() throws Exception {
+        execute(4);
+    }
+
+    @Test
+    public void sixteenThreads() throws Exception {
+        execute(16);
+    }
+
+    @Test
+    public void sixtyFourThreads() throws Exception {
+        execute(64);
+    }
+
+    /**
+     * Все потоки увеличивают счетчик одного и того же лидера: лидер выбирается один раз,
+     * дальше увеличения не меняют общую ссылку на лидера и не конкурируют за нее.
+     */
+    @Test
+    public void leaderBumps_doNotSerialize() throws Exception {
+        int threadsCount = 8;
+        int increments = 1_000_000;
+        ConcurrentPopularityCounter<Integer> counter = new ConcurrentPopularityCounter<>();
+        CyclicBarrier barrier = new CyclicBarrier(threadsCount + 1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadsCount; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int i = 0; i < increments; i++) {
+                        counter.increment(0);
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        barrier.await();
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.println(threadsCount + " threads on one key: "
+                + ((long) increments * threadsCount / elapsed) + " increments/ms, leader changes: "
+                + counter.getLeaderChanges());
+
+        assertEquals(1, counter.getLeaderChanges());
+        assertEquals(Integer.valueOf(0), counter.getMostPopular());
+        assertEquals(increments * threadsCount, counter.getPopularity(0));
+    }
+
+    /**
+     * Два ключа обгоняют друг друга из разных потоков, после завершения лидер - тот, у кого больше
+     */
+    @Test
+    public void leaderRace_settlesOnMax() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            ConcurrentPopularityCounter<Integer> counter = new ConcurrentPopularityCounter<>();
+            int winner = round % 2;
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int key = t % 2;
+                int increments = key == winner ? 100_001 : 100_000;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        counter.increment(key);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(Integer.valueOf(winner), counter.getMostPopular());
+        }
+    }
+
+    /**
+     * Все потоки читают одни и те же ключи, ключ 0 дополнительно читается на каждой итерации,
+     * поэтому после завершения он обязан быть самым популярным, а счетчики - точными.
+     */
+    private void execute(int threadsCount) throws Exception {
+        ConcurrentPopularMap<Integer, Integer> popularMap = new ConcurrentPopularMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            popularMap.put(i, i);
+        }
+        CyclicBarrier barrier = new CyclicBarrier(threadsCount + 1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadsCount; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        popularMap.get(i % KEYS);
+                        popularMap.containsKey(0);
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        barrier.await();
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.println(threadsCount + " threads: "
+                + (2L * OPERATIONS_PER_THREAD * threadsCount / elapsed) + " ops/ms");
+
+        int perKey = OPERATIONS_PER_THREAD / KEYS * threadsCount;
+        assertEquals(Integer.valueOf(0), popularMap.getPopularKey());
+        assertEquals(1 + perKey + OPERATIONS_PER_THREAD * threadsCount, popularMap.getKeyPopularity(0));
+        assertEquals(1 + perKey, popularMap.getKeyPopularity(KEYS - 1));
+        assertEquals(1 + perKey, popularMap.getValuePopularity(KEYS - 1));
+        assertTrue(popularMap.popularIterator().hasNext());
+    }
+}
@@ -1,11 +1,22 @@
 package ru.mail.polis.homework.collections;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -19,6 +30,11 @@ import static org.mockito.Mockito.verify;
 @RunWith(MockitoJUnitRunner.class)
 public class PopularMapTest {
 
+    /**
+     * Примерно столько памяти занимает один ключ PopularMap вместе с индексом популярности
+     */
+    private static final long LATENCY_BYTES_PER_KEY = 300;
+
     private PopularMap<TestObject, TestObject> popularMap1;
     private PopularMap<TestObject, TestObject> popularMap2;
 
@@ -171,6 +187,260 @@ public class PopularMapTest {
         assertEquals(3, i);
     }
 
+    @Test
+    public void popularIterator_readFirstValues() {
+        for (int i = 0; i < 1000; i++) {
+            TestObject key = new TestObject("key" + i);
+            popularMap1.put(key, new TestObject("value" + i));
+            for (int j = 0; j < i % 10; j++) {
+                popularMap1.get(key);
+            }
+        }
+        Iterator<TestObject> it = popularMap1.popularIterator();
+        int previous = 0;
+        for (int i = 0; i < 300; i++) {
+            int popularity = popularMap1.getValuePopularity(it.next());
+            assertTrue(popularity >= previous);
+            previous = popularity;
+        }
+        assertEquals(3, previous);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void popularIterator_failFast() {
+        TestObject key = new TestObject("key");
+        popularMap1.put(key, new TestObject("value1"));
+        popularMap1.put(new TestObject("key2"), new TestObject("value2"));
+        Iterator<TestObject> it = popularMap1.popularIterator();
+        it.next();
+        popularMap1.get(key);
+        it.next();
+    }
+
+    @Test
+    public void popularKey_changesLeader() {
+        TestObject leader = new TestObject("leader");
+        TestObject chaser = new TestObject("chaser");
+        for (int i = 0; i < 100_000; i++) {
+            popularMap1.put(new TestObject("key" + i), new TestObject("value" + i));
+        }
+        popularMap1.get(leader);
+        popularMap1.get(leader);
+        assertEquals(leader, popularMap1.getPopularKey());
+
+        popularMap1.get(chaser);
+        popularMap1.get(chaser);
+        popularMap1.get(chaser);
+        assertEquals(chaser, popularMap1.getPopularKey());
+        assertEquals(3, popularMap1.getKeyPopularity(chaser));
+        assertEquals(2, popularMap1.getKeyPopularity(leader));
+        assertEquals(1, popularMap1.getKeyPopularity(new TestObject("key99999")));
+    }
+
+    @Test
+    public void putAll_countsPopularity() {
+        TestObject key = new TestObject("key");
+        TestObject oldValue = new TestObject("old");
+        TestObject newValue = new TestObject("new");
+        popularMap1.put(key, oldValue);
+        Map<TestObject, TestObject> other = new HashMap<>();
+        other.put(key, newValue);
+        other.put(new TestObject("other"), newValue);
+        popularMap1.putAll(other);
+
+        assertEquals(key, popularMap1.getPopularKey());
+        assertEquals(2, popularMap1.getKeyPopularity(key));
+        assertEquals(newValue, popularMap1.getPopularValue());
+        assertEquals(2, popularMap1.getValuePopularity(newValue));
+        assertEquals(2, popularMap1.getValuePopularity(oldValue));
+        assertEquals(newValue, popularMap1.get(key));
+    }
+
+    /**
+     * Время getPopularKey не зависит от количества ключей: после заполнения 10^3 .. 10^7 ключами
+     * меряется среднее время вызова между обращениями, которые меняют лидера.
+     * Бенчмарк: ничего не проверяет, кроме лидера, строит мапы до 10^7 ключей и нужен запуск с -Xmx4g,
+     * поэтому в обычном наборе тестов не запускается.
+     */
+    @Ignore("benchmark, run manually with -Xmx4g")
+    @Test
+    public void popularKey_latency() {
+        for (int size = 1_000; size <= 10_000_000; size *= 10) {
+            if ((long) size * LATENCY_BYTES_PER_KEY > Runtime.getRuntime().maxMemory()) {
+                System.out.println("getPopularKey over " + size + " keys: skipped, heap is too small");
+                break;
+            }
+            PopularMap<Integer, Integer> popularMap = new PopularMap<>();
+            for (int i = 0; i < size; i++) {
+                popularMap.put(i, i & 1023);
+            }
+            int calls = 100_000;
+            long elapsed = 0;
+            for (int i = 0; i < calls; i++) {
+                popularMap.get(i % 2);
+                long start = System.nanoTime();
+                Integer leader = popularMap.getPopularKey();
+                elapsed += System.nanoTime() - start;
+                assertTrue(leader == 0 || leader == 1);
+            }
+            System.out.println("getPopularKey over " + size + " keys: " + elapsed / calls + " ns");
+        }
+    }
+
+    @Test
+    public void approximate_zipfErrorBounds() {
+        double epsilon = 0.001;
+        double delta = 0.01;
+        int keys = 50_000;
+        int operations = 500_000;
+        PopularMap<Integer, Integer> approximate = PopularMap.approximate(epsilon, delta);
+        int[] exact = new int[keys];
+        int[] workload = zipf(keys, operations, 1.1, new Random(42));
+        for (int key : workload) {
+            approximate.containsKey(key);
+            exact[key]++;
+        }
+
+        int violations = 0;
+        for (int key = 0; key < keys; key++) {
+            int estimate = approximate.getKeyPopularity(key);
+            assertTrue(estimate >= exact[key]);
+            if (estimate > exact[key] + epsilon * operations) {
+                violations++;
+            }
+        }
+        assertTrue("violations: " + violations, violations <= delta * keys);
+        assertEquals(Integer.valueOf(0), approximate.getPopularKey());
+    }
+
+    @Test
+    public void approximate_heavyHittersAreTracked() {
+        double epsilon = 0.01;
+        int keys = 10_000;
+        int operations = 200_000;
+        PopularMap<Integer, Integer> approximate = PopularMap.approximate(epsilon, 0.01);
+        int[] exact = new int[keys];
+        for (int value : zipf(keys, operations, 1.2, new Random(7))) {
+            approximate.put(0, value);
+            exact[value]++;
+        }
+
+        Set<Integer> tracked = new HashSet<>();
+        approximate.popularIterator().forEachRemaining(tracked::add);
+        assertTrue(tracked.size() <= Math.ceil(1 / epsilon));
+        for (int value = 0; value < keys; value++) {
+            if (exact[value] > epsilon * operations) {
+                assertTrue("value " + value, tracked.contains(value));
+            }
+        }
+        assertEquals(Integer.valueOf(0), approximate.getPopularValue());
+    }
+
+    /**
+     * "Aa" и "BB" имеют одинаковый hashCode, но в строках скетча не совпадают
+     */
+    @Test
+    public void approximate_equalHashCodesDoNotShareCounters() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        CountMinSketch sketch = new CountMinSketch(0.01, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            sketch.increment("Aa");
+        }
+        assertEquals(1000, sketch.estimate("Aa"));
+        assertEquals(0, sketch.estimate("BB"));
+    }
+
+    @Test
+    public void windowed_oldUsagesExpire() {
+        TestClock clock = new TestClock();
+        PopularMap<TestObject, TestObject> windowed = PopularMap.windowed(Duration.ofMinutes(10), 10, clock);
+        TestObject oldKey = new TestObject("old");
+        TestObject newKey = new TestObject("new");
+        TestObject value = new TestObject("value");
+        for (int i = 0; i < 5; i++) {
+            windowed.put(oldKey, value);
+        }
+        clock.advance(Duration.ofMinutes(5));
+        windowed.get(newKey);
+        windowed.get(newKey);
+        assertEquals(oldKey, windowed.getPopularKey());
+        assertEquals(5, windowed.getKeyPopularity(oldKey));
+        assertEquals(9, windowed.getValuePopularity(value));
+
+        clock.advance(Duration.ofMinutes(5));
+        assertEquals(newKey, windowed.getPopularKey());
+        assertEquals(0, windowed.getKeyPopularity(oldKey));
+        assertEquals(2, windowed.getKeyPopularity(newKey));
+        assertEquals(0, windowed.getValuePopularity(value));
+
+        clock.advance(Duration.ofHours(1));
+        assertEquals(null, windowed.getPopularKey());
+        assertEquals(0, windowed.getKeyPopularity(newKey));
+        assertFalse(windowed.popularIterator().hasNext());
+    }
+
+    @Test
+    public void windowed_slidesBySlice() {
+        TestClock clock = new TestClock();
+        PopularMap<Integer, Integer> windowed = PopularMap.windowed(Duration.ofSeconds(60), 60, clock);
+        for (int second = 0; second < 120; second++) {
+            windowed.containsKey(second % 2);
+            if (second % 3 == 0) {
+                windowed.containsKey(2);
+            }
+            clock.advance(Duration.ofSeconds(1));
+        }
+        // в окне отрезки с 61 по 120 секунду, на 120 секунде использований еще не было
+        assertEquals(29, windowed.getKeyPopularity(0));
+        assertEquals(30, windowed.getKeyPopularity(1));
+        assertEquals(19, windowed.getKeyPopularity(2));
+        assertEquals(Integer.valueOf(1), windowed.getPopularKey());
+    }
+
+    /**
+     * Часы, которые двигаются только вручную
+     */
+    private static class TestClock extends Clock {
+        private Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    /**
+     * Zipf-распределение: вероятность ключа i пропорциональна 1 / (i + 1)^s
+     */
+    private static int[] zipf(int keys, int count, double s, Random random) {
+        double[] cdf = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            result[i] = Math.min(keys - 1, index >= 0 ? index : -index - 1);
+        }
+        return result;
+    }
+
     @Test
     public void isEmpty() {
         popularMap2.isEmpty();
@@ -0,0 +1,208 @@
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncMailServiceTest {
+
+    private static final int CAPACITY = 4;
+    private static final int MAILS_PER_PRODUCER = 200_000;
+
+    @Test
+    public void testDrop() throws Exception {
+        BlockingMailService service = new BlockingMailService();
+        AsyncMailService<MailMessage> async = new AsyncMailService<>(service, 1, CAPACITY,
+                AsyncMailService.OverloadPolicy.DROP);
+        fill(async, service);
+        assertEquals(CAPACITY, async.getQueueDepth());
+        assertEquals(6, async.getDroppedCount());
+
+        service.release.countDown();
+        async.close();
+        assertEquals(0, async.getQueueDepth());
+        assertEquals(CAPACITY + 1, async.getProcessedCount());
+        assertEquals(CAPACITY + 1, service.getMailBox().get("b").size());
+    }
+
+    @Test
+    public void testCallerRuns() throws Exception {
+        BlockingMailService service = new BlockingMailService();
+        AsyncMailService<MailMessage> async = new AsyncMailService<>(service, 1, CAPACITY,
+                AsyncMailService.OverloadPolicy.CALLER_RUNS);
+        fill(async, service);
+        assertEquals(6, async.getCallerRunsCount());
+        assertEquals(6, async.getProcessedCount());
+
+        service.release.countDown();
+        async.close();
+        assertEquals(0, async.getDroppedCount());
+        assertEquals(11, async.getProcessedCount());
+        assertEquals(11, service.getMailBox().get("b").size());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        BlockingMailService service = new BlockingMailService();
+        AsyncMailService<MailMessage> async = new AsyncMailService<>(service, 1, CAPACITY,
+                AsyncMailService.OverloadPolicy.BLOCK);
+        Thread producer = new Thread(() -> fill(async, service));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        assertEquals(CAPACITY, async.getQueueDepth());
+        long full = System.nanoTime();
+        Thread.sleep(100);
+
+        long waited = System.nanoTime() - full;
+        service.release.countDown();
+        producer.join();
+        async.close();
+        assertEquals(0, async.getDroppedCount());
+        assertEquals(11, service.getMailBox().get("b").size());
+        assertTrue(async.getMaxLatencyNanos() >= waited);
+    }
+
+    /**
+     * Задержка считается от входа в accept: время, которое производитель ждал места в очереди, в нее входит
+     */
+    @Test
+    public void testBlockedTimeInLatency() throws Exception {
+        BlockingMailService service = new BlockingMailService();
+        AsyncMailService<MailMessage> async = new AsyncMailService<>(service, 1, 2,
+                AsyncMailService.OverloadPolicy.BLOCK);
+        async.accept(new MailMessage("a", "b", "first"));
+        service.entered.await();
+        async.accept(new MailMessage("a", "b", "queued"));
+        async.accept(new MailMessage("a", "b", "queued"));
+        long[] acceptTime = new long[1];
+        Thread producer = new Thread(() -> {
+            long start = System.nanoTime();
+            async.accept(new MailMessage("a", "b", "blocked"));
+            acceptTime[0] = System.nanoTime() - start;
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        service.release.countDown();
+        producer.join();
+        async.close();
+        assertEquals(4, async.getProcessedCount());
+        assertTrue(async.getMaxLatencyNanos() >= acceptTime[0]);
+    }
+
+    @Test
+    public void testCloseWhenInterrupted() {
+        AsyncMailService<MailMessage> async = new AsyncMailService<>(new MailService<>(), 2, CAPACITY,
+                AsyncMailService.OverloadPolicy.BLOCK);
+        for (int i = 0; i < 100; i++) {
+            async.accept(new MailMessage("a", "b" + i % 5, String.valueOf(i)));
+        }
+        Thread.currentThread().interrupt();
+        async.close();
+        assertTrue(Thread.interrupted());
+        assertEquals(100, async.getProcessedCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAcceptAfterClose() throws Exception {
+        AsyncMailService<MailMessage> async = new AsyncMailService<>(new MailService<>(), 2, CAPACITY,
+                AsyncMailService.OverloadPolicy.BLOCK);
+        async.close();
+        async.accept(new MailMessage("a", "b", "1"));
+    }
+
+    /**
+     * Несколько производителей, несколько потребителей и маленькие очереди: после close все письма
+     * разложены, письма одного производителя одному получателю - в порядке отправки
+     */
+    @Test
+    public void testMultiProducerThroughput() throws Exception {
+        for (int consumers : new int[]{1, 2, 4}) {
+            int producers = 4;
+            AsyncMailService<MailMessage> async = new AsyncMailService<>(new MailService<>(), consumers, 1024,
+                    AsyncMailService.OverloadPolicy.BLOCK);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                String sender = "producer" + p;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < MAILS_PER_PRODUCER; i++) {
+                        async.accept(new MailMessage(sender, "recipient" + i % 100, String.valueOf(i)));
+                    }
+                }));
+            }
+            long start = System.nanoTime();
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            async.close();
+            long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            System.out.println(consumers + " consumers: " + (long) producers * MAILS_PER_PRODUCER / elapsed
+                    + " mails/ms, average latency " + async.getAverageLatencyNanos() / 1_000 + " us, max "
+                    + async.getMaxLatencyNanos() / 1_000 + " us");
+
+            assertEquals((long) producers * MAILS_PER_PRODUCER, async.getProcessedCount());
+            Map<String, List<MailMessage>> mailBox = async.getService().getMailBox();
+            assertEquals(100, mailBox.size());
+            for (List<MailMessage> mails : mailBox.values()) {
+                assertEquals(producers * MAILS_PER_PRODUCER / 100, mails.size());
+                int[] last = new int[producers];
+                Arrays.fill(last, -1);
+                for (MailMessage mail : mails) {
+                    int producer = Integer.parseInt(mail.getSender().substring("producer".length()));
+                    int number = Integer.parseInt(mail.getText());
+                    assertTrue(number > last[producer]);
+                    last[producer] = number;
+                }
+            }
+        }
+    }
+
+    /**
+     * Отправляет одно письмо и ждет, пока потребитель на нем остановится, потом отправляет еще 10:
+     * CAPACITY из них помещаются в очередь, остальные 6 упираются в переполнение
+     */
+    private static void fill(AsyncMailService<MailMessage> async, BlockingMailService service) {
+        async.accept(new MailMessage("a", "b", "first"));
+        try {
+            service.entered.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        for (int i = 0; i < 10; i++) {
+            async.accept(new MailMessage("a", "b", String.valueOf(i)));
+        }
+    }
+
+    /**
+     * Сервис, который останавливается на письме "first", пока не откроют release
+     */
+    private static class BlockingMailService extends MailService<MailMessage> {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void accept(MailMessage mail) {
+            if ("first".equals(mail.getText())) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            super.accept(mail);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package ru.mail.polis.homework.collections.mail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MailServiceTest {
+
+    private static final int MAILS_PER_PRODUCER = 200_000;
+    private static final int RECIPIENTS = 1_000;
+
+    @Test
+    public void testMessagesAndSalaries() {
+        MailService<Mail<?>> service = new MailService<>();
+        assertNull(service.getPopularSender());
+        assertNull(service.getPopularRecipient());
+
+        service.accept(new MailMessage("boss", "alice", "hello"));
+        service.accept(new Salary("boss", "alice", 100));
+        service.accept(new MailMessage("alice", "bob", "hi"));
+        service.accept(new Salary("boss", "bob", 50));
+        service.accept(new MailMessage("bob", "bob", "note"));
+
+        assertEquals("boss", service.getPopularSender());
+        assertEquals("bob", service.getPopularRecipient());
+        Map<String, List<Mail<?>>> mailBox = service.getMailBox();
+        assertEquals(2, mailBox.size());
+        assertEquals(Arrays.asList(new MailMessage("boss", "alice", "hello"), new Salary("boss", "alice", 100)),
+                mailBox.get("alice"));
+        assertEquals(3, mailBox.get("bob").size());
+    }
+
+    @Test
+    public void testTypedSalaries() {
+        MailService<Salary> service = new MailService<>();
+        MailService.process(service, Arrays.asList(
+                new Salary("company", "alice", 100),
+                new Salary("company", "bob", 200),
+                new Salary("bank", "alice", 300)));
+        long sum = service.getMailBox().get("alice").stream().mapToLong(Salary::getSum).sum();
+        assertEquals(400, sum);
+        assertEquals("company", service.getPopularSender());
+        assertEquals("alice", service.getPopularRecipient());
+    }
+
+    /**
+     * getMailBox - представление без копирования, новые письма сразу в нем видны
+     */
+    @Test
+    public void testMailBoxView() {
+        MailService<MailMessage> service = new MailService<>();
+        service.accept(new MailMessage("a", "b", "1"));
+        Map<String, List<MailMessage>> view = service.getMailBox();
+        List<MailMessage> mailBox = view.get("b");
+        service.accept(new MailMessage("a", "b", "2"));
+        service.accept(new MailMessage("a", "c", "3"));
+        assertEquals(2, mailBox.size());
+        assertEquals("2", mailBox.get(1).getText());
+        assertEquals(2, view.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMailBoxMapIsReadOnly() {
+        new MailService<MailMessage>().getMailBox().put("b", new ArrayList<>());
+    }
+
+    @Test
+    public void testPages() {
+        MailService<MailMessage> service = new MailService<>();
+        for (int i = 0; i < 100; i++) {
+            service.accept(new MailMessage("a", "b", String.valueOf(i)));
+        }
+        assertEquals(texts(10, 20), texts(service.getMailBox("b", 10, 10)));
+        assertEquals(texts(95, 100), texts(service.getMailBox("b", 95, 10)));
+        assertTrue(service.getMailBox("b", 100, 10).isEmpty());
+        assertTrue(service.getMailBox("nobody", 0, 10).isEmpty());
+        assertEquals(texts(0, 100), service.getMailStream("b").map(MailMessage::getText).collect(Collectors.toList()));
+        assertEquals(4950, service.getMailStream("b").parallel()
+                .mapToInt(mail -> Integer.parseInt(mail.getText()))
+                .sum());
+        assertEquals(0, service.getMailStream("nobody").count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        new MailService<MailMessage>().getMailBox("b", 0, -1);
+    }
+
+    /**
+     * Хранятся только retention последних писем каждого получателя
+     */
+    @Test
+    public void testRetention() {
+        MailService<MailMessage> service = new MailService<>(5);
+        for (int i = 0; i < 12; i++) {
+            service.accept(new MailMessage("a", "b", String.valueOf(i)));
+        }
+        service.accept(new MailMessage("a", "c", "x"));
+        List<MailMessage> mailBox = service.getMailBox().get("b");
+        assertEquals(5, mailBox.size());
+        assertEquals(texts(7, 12), texts(mailBox));
+        assertEquals("7", mailBox.get(0).getText());
+        assertEquals(texts(9, 11), texts(service.getMailBox("b", 2, 2)));
+        assertEquals(texts(7, 12), service.getMailStream("b").map(MailMessage::getText).collect(Collectors.toList()));
+        assertEquals(1, service.getMailBox().get("c").size());
+        assertEquals("b", service.getPopularRecipient());
+    }
+
+    /**
+     * Обход ящика, из которого во время обхода вытесняются письма, видит только возрастающие номера
+     * и не бросает исключений
+     */
+    @Test
+    public void testIterateWhileEvicting() {
+        MailService<MailMessage> service = new MailService<>(64);
+        service.accept(new MailMessage("a", "b", "0"));
+        Iterator<MailMessage> iterator = service.getMailBox().get("b").iterator();
+        for (int i = 1; i < 1_000; i++) {
+            service.accept(new MailMessage("a", "b", String.valueOf(i)));
+        }
+        assertFalse(iterator.hasNext());
+
+        Iterator<MailMessage> full = service.getMailBox().get("b").iterator();
+        assertEquals("936", full.next().getText());
+        for (int i = 1_000; i < 1_100; i++) {
+            service.accept(new MailMessage("a", "b", String.valueOf(i)));
+        }
+        int previous = 936;
+        int seen = 1;
+        while (full.hasNext()) {
+            int number = Integer.parseInt(full.next().getText());
+            assertTrue(number > previous && number < 1_000);
+            previous = number;
+            seen++;
+        }
+        assertTrue(seen < 64);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroRetention() {
+        new MailService<MailMessage>(0);
+    }
+
+    /**
+     * Много производителей и маленький ящик: в нем всегда не больше retention писем, и после
+     * завершения это ровно последние письма каждого производителя в порядке отправки
+     */
+    @Test
+    public void testConcurrentRetention() throws Exception {
+        int retention = 100;
+        MailService<MailMessage> service = new MailService<>(retention);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            String sender = "producer" + p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < MAILS_PER_PRODUCER; i++) {
+                    service.accept(new MailMessage(sender, "recipient", String.valueOf(i)));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        List<MailMessage> mailBox = null;
+        while (mailBox == null) {
+            mailBox = service.getMailBox().get("recipient");
+        }
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                assertTrue(mailBox.size() <= retention);
+                assertTrue(service.getMailBox("recipient", 0, 1_000).size() <= retention);
+            }
+        }
+        assertEquals(retention, mailBox.size());
+        Map<String, Integer> last = new HashMap<>();
+        for (MailMessage mail : mailBox) {
+            int number = Integer.parseInt(mail.getText());
+            Integer previous = last.put(mail.getSender(), number);
+            assertTrue(previous == null || previous < number);
+        }
+        last.values().forEach(number -> assertTrue(number < MAILS_PER_PRODUCER));
+        assertTrue(last.values().contains(MAILS_PER_PRODUCER - 1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMailBoxIsReadOnly() {
+        MailService<MailMessage> service = new MailService<>();
+        service.accept(new MailMessage("a", "b", "1"));
+        service.getMailBox().get("b").add(new MailMessage("a", "b", "2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullRecipient() {
+        new MailService<MailMessage>().accept(new MailMessage("a", null, "1"));
+    }
+
+    @Test
+    public void testParallelProcess() {
+        List<MailMessage> mails = mails(0, 100_000);
+        MailService<MailMessage> service = new MailService<>();
+        MailService.process(service, mails);
+        assertMailBoxes(service, mails);
+    }
+
+    /**
+     * Несколько производителей пишут одновременно. Все письма должны оказаться в ящиках, письма одного
+     * производителя одному получателю - в порядке отправки, самый частый получатель - recipient0.
+     */
+    @Test
+    public void testMultiProducerThroughput() throws Exception {
+        for (int producers : new int[]{1, 2, 4, 8}) {
+            MailService<MailMessage> service = new MailService<>();
+            List<List<MailMessage>> batches = new ArrayList<>();
+            List<MailMessage> all = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                List<MailMessage> batch = mails(p, MAILS_PER_PRODUCER);
+                batches.add(batch);
+                all.addAll(batch);
+            }
+            CyclicBarrier barrier = new CyclicBarrier(producers + 1);
+            List<Thread> threads = new ArrayList<>();
+            for (List<MailMessage> batch : batches) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        barrier.await();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    batch.forEach(service);
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            barrier.await();
+            long start = System.nanoTime();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            System.out.println(producers + " producers: " + (long) producers * MAILS_PER_PRODUCER / elapsed
+                    + " mails/ms");
+
+            assertMailBoxes(service, all);
+            for (List<MailMessage> mailBox : service.getMailBox().values()) {
+                int[] last = new int[producers];
+                Arrays.fill(last, -1);
+                for (MailMessage mail : mailBox) {
+                    int producer = Integer.parseInt(mail.getSender().substring("producer".length()));
+                    int number = Integer.parseInt(mail.getText());
+                    assertTrue(number > last[producer]);
+                    last[producer] = number;
+                }
+            }
+        }
+    }
+
+    private static List<String> texts(int from, int to) {
+        return IntStream.range(from, to).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+
+    private static List<String> texts(List<MailMessage> mails) {
+        return mails.stream().map(MailMessage::getText).collect(Collectors.toList());
+    }
+
+    private static void assertMailBoxes(MailService<MailMessage> service, List<MailMessage> mails) {
+        Map<String, List<MailMessage>> mailBox = service.getMailBox();
+        assertEquals(RECIPIENTS, mailBox.size());
+        Set<MailMessage> received = new HashSet<>();
+        for (Map.Entry<String, List<MailMessage>> entry : mailBox.entrySet()) {
+            for (MailMessage mail : entry.getValue()) {
+                assertEquals(entry.getKey(), mail.getRecipient());
+                received.add(mail);
+            }
+        }
+        assertEquals(new HashSet<>(mails), received);
+        assertEquals(mails.size(), received.size());
+        assertEquals("recipient0", service.getPopularRecipient());
+    }
+
+    /**
+     * count писем от producer: каждое третье - recipient0, остальные - по кругу всем получателям
+     */
+    private static List<MailMessage> mails(int producer, int count) {
+        List<MailMessage> mails = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int recipient = i % 3 == 0 ? 0 : i % RECIPIENTS;
+            mails.add(new MailMessage("producer" + producer, "recipient" + recipient, String.valueOf(i)));
+        }
+        return mails;
+    }
+}
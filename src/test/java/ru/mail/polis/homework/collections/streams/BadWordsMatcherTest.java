@@ -0,0 +1,108 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BadWordsMatcherTest {
+
+    private static final String DELIMITERS = " \n\t.,;:!?";
+
+    @Test
+    public void simpleStreams() {
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("дурак", 2);
+        expected.put("bad", 3);
+        assertEquals(expected, SimpleStreams.createBadWordsDetectingStream(
+                "Ты дурак!bad,bad? Дурак дураки...дурак\nbad; badbad", Arrays.asList("дурак", "bad", "плохо")));
+        assertEquals(Collections.emptyMap(), SimpleStreams.createBadWordsDetectingStream("", Arrays.asList("a")));
+        assertEquals(Collections.emptyMap(), SimpleStreams.createBadWordsDetectingStream("a b c", Arrays.asList()));
+        assertEquals(Collections.singletonMap("a", 1),
+                SimpleStreams.createBadWordsDetectingStream(" a ", Arrays.asList("a", "a", "")));
+    }
+
+    @Test
+    public void sameAsSplit() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> vocabulary = vocabulary(random, 1 + random.nextInt(50));
+            List<String> badWords = new ArrayList<>(vocabulary.subList(0, random.nextInt(vocabulary.size())));
+            String text = text(random, vocabulary, random.nextInt(500));
+            Map<String, Integer> expected = SimpleStreams.countBadWordsBySplit(text, badWords);
+            BadWordsMatcher matcher = new BadWordsMatcher(badWords);
+            assertEquals(expected, matcher.count(text));
+            assertEquals(expected, matcher.countParallel(text, ForkJoinPool.commonPool(), 1 + random.nextInt(64)));
+        }
+    }
+
+    /**
+     * Большой список плохих слов: разбиение и проверка по списку против матчера, последовательно и параллельно
+     */
+    @Test
+    public void benchmark() {
+        Random random = new Random(7);
+        List<String> vocabulary = vocabulary(random, 40_000);
+        List<String> badWords = new ArrayList<>(vocabulary.subList(0, 20_000));
+        String small = text(random, vocabulary, 20_000);
+        String big = text(random, vocabulary, 2_000_000);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            Map<String, Integer> expected = SimpleStreams.countBadWordsBySplit(small, badWords);
+            long split = System.nanoTime() - start;
+            start = System.nanoTime();
+            BadWordsMatcher matcher = new BadWordsMatcher(badWords);
+            long compile = System.nanoTime() - start;
+            start = System.nanoTime();
+            assertEquals(expected, matcher.count(small));
+            long scan = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Map<String, Integer> sequential = matcher.count(big);
+            long bigScan = System.nanoTime() - start;
+            start = System.nanoTime();
+            assertEquals(sequential, matcher.countParallel(big));
+            long parallel = System.nanoTime() - start;
+            System.out.println("20000 words, split: " + TimeUnit.NANOSECONDS.toMillis(split)
+                    + " ms, matcher: compile " + TimeUnit.NANOSECONDS.toMillis(compile)
+                    + " ms + scan " + TimeUnit.NANOSECONDS.toMillis(scan) + " ms; "
+                    + big.length() + " chars: sequential " + TimeUnit.NANOSECONDS.toMillis(bigScan)
+                    + " ms, parallel " + TimeUnit.NANOSECONDS.toMillis(parallel) + " ms");
+        }
+    }
+
+    private static List<String> vocabulary(Random random, int size) {
+        List<String> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                word.append(random.nextBoolean() ? (char) ('a' + random.nextInt(4)) : (char) ('а' + random.nextInt(4)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static String text(Random random, List<String> vocabulary, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int delimiters = random.nextInt(3);
+            for (int j = 0; j < delimiters; j++) {
+                text.append(DELIMITERS.charAt(random.nextInt(DELIMITERS.length())));
+            }
+            text.append(vocabulary.get(random.nextInt(vocabulary.size())));
+            text.append(DELIMITERS.charAt(random.nextInt(DELIMITERS.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class IntTopKTest {
+
+    @Test
+    public void sameAsSort() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            int[] values = random.ints(random.nextInt(200), 0, 20).toArray();
+            int k = random.nextInt(30);
+            Comparator<Integer> order = Comparator.<Integer>comparingInt(i -> -values[i])
+                    .thenComparingInt(i -> i);
+            IntTopK top = new IntTopK(k, (a, b) -> order.compare(a, b));
+            for (int i = 0; i < values.length; i++) {
+                top.offer(i);
+            }
+            int[] expected = IntStream.range(0, values.length).boxed()
+                    .sorted(order)
+                    .limit(k)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertEquals(expected.length, top.size());
+            assertArrayEquals(expected, top.drain());
+            assertEquals(0, top.size());
+        }
+    }
+
+    @Test
+    public void zeroK() {
+        IntTopK top = new IntTopK(0, Integer::compare);
+        top.offer(1);
+        assertArrayEquals(new int[0], top.drain());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeK() {
+        new IntTopK(-1, Integer::compare);
+    }
+}
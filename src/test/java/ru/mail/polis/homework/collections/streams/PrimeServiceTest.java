@@ -0,0 +1,101 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimeServiceTest {
+
+    @Test
+    public void simpleStreams() {
+        assertFalse(SimpleStreams.isPrime(Integer.MIN_VALUE));
+        assertFalse(SimpleStreams.isPrime(-7));
+        assertFalse(SimpleStreams.isPrime(0));
+        assertFalse(SimpleStreams.isPrime(1));
+        assertTrue(SimpleStreams.isPrime(2));
+        assertTrue(SimpleStreams.isPrime(3));
+        assertFalse(SimpleStreams.isPrime(4));
+        assertTrue(SimpleStreams.isPrime(97));
+        assertFalse(SimpleStreams.isPrime(561));
+        assertTrue(SimpleStreams.isPrime(Integer.MAX_VALUE));
+        assertFalse(SimpleStreams.isPrime(46341 * 46339));
+        IntStream.range(-10, 100_000)
+                .forEach(n -> assertEquals(SimpleStreams.isPrimeByStream(n), SimpleStreams.isPrime(n)));
+    }
+
+    /**
+     * Маленькое решето, чтобы проверить и рост решета, и Миллера-Рабина, и сегменты за границей решета
+     */
+    @Test
+    public void sameAsTrialDivision() {
+        PrimeService service = new PrimeService(1 << 17);
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            int n = i % 2 == 0 ? random.nextInt(1 << 20) : random.nextInt(Integer.MAX_VALUE);
+            assertEquals(String.valueOf(n), SimpleStreams.isPrimeByStream(n), service.isPrime(n));
+        }
+        for (int from : new int[]{-5, 0, 2, 3, 1000, 65_535, 131_000, 1 << 20, Integer.MAX_VALUE - 300_000}) {
+            int to = from + 200_000 + random.nextInt(100);
+            int[] expected = IntStream.rangeClosed(from, to).filter(SimpleStreams::isPrimeByStream).toArray();
+            assertArrayEquals(expected, service.primesInRange(from, to));
+            assertEquals(expected.length, service.countPrimes(from, to));
+        }
+        assertArrayEquals(new int[]{2}, service.primesInRange(2, 2));
+        assertEquals(0, service.countPrimes(10, 5));
+        assertEquals(1, service.countPrimes(Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void longs() {
+        PrimeService service = PrimeService.getDefault();
+        assertTrue(service.isPrime(4_294_967_291L));
+        assertTrue(service.isPrime(1_000_000_007L));
+        assertTrue(service.isPrime(Long.MAX_VALUE - 24));
+        assertTrue(service.isPrime(2_305_843_009_213_693_951L));
+        assertFalse(service.isPrime(3_215_031_751L));
+        assertFalse(service.isPrime(3_825_123_056_546_413_051L));
+        assertFalse(service.isPrime(4_294_967_291L * 4_294_967_279L));
+        assertFalse(service.isPrime(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void primeCounts() {
+        PrimeService service = new PrimeService();
+        assertEquals(78_498, service.countPrimes(0, 1_000_000));
+        assertEquals(664_579, service.countPrimes(0, 10_000_000));
+        assertEquals(5_761_455, service.countPrimes(0, 100_000_000));
+        assertEquals(5_761_455 - 664_579, service.countPrimes(10_000_001, 100_000_000));
+    }
+
+    /**
+     * Проверка всех чисел подряд: решето против перебора делителей на стримах
+     */
+    @Test
+    public void benchmark() {
+        int limit = 5_000_000;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long expected = IntStream.range(0, limit).filter(SimpleStreams::isPrimeByStream).count();
+            long streams = System.nanoTime() - start;
+            start = System.nanoTime();
+            PrimeService service = new PrimeService();
+            long actual = IntStream.range(0, limit).filter(service::isPrime).count();
+            long sieve = System.nanoTime() - start;
+            start = System.nanoTime();
+            long counted = new PrimeService().countPrimes(0, limit - 1);
+            long bulk = System.nanoTime() - start;
+            assertEquals(expected, actual);
+            assertEquals(expected, counted);
+            System.out.println("isPrime for " + limit + " numbers: streams " + TimeUnit.NANOSECONDS.toMillis(streams)
+                    + " ms, sieve " + TimeUnit.NANOSECONDS.toMillis(sieve) + " ms, countPrimes "
+                    + TimeUnit.NANOSECONDS.toMillis(bulk) + " ms");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.mail.polis.homework.collections.streams;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingWordFrequencyTest {
+
+    @Test
+    public void exactWhileEverythingFits() {
+        StreamingWordFrequency frequency = new StreamingWordFrequency(100);
+        frequency.accept("Шел я шел,а потом еще шел,и наконец,дошел");
+        assertEquals(Arrays.asList("шел", "а", "дошел", "еще", "и", "наконец", "потом", "я"), frequency.top(10));
+        assertEquals(3, frequency.getEstimate("ШЕЛ"));
+        assertEquals(0, frequency.getErrorBound());
+        assertEquals(10, frequency.getTotal());
+        assertTrue(frequency.isExact(3));
+        assertTrue(frequency.isExact(10));
+    }
+
+    @Test
+    public void eviction() {
+        StreamingWordFrequency frequency = new StreamingWordFrequency(2);
+        frequency.accept("a a a b c");
+        assertEquals(Arrays.asList("a", "c"), frequency.top(10));
+        assertEquals(0, frequency.getEstimate("b"));
+        assertEquals(2, frequency.getEstimate("c"));
+        assertEquals(1, frequency.getError("c"));
+        assertEquals(2, frequency.getErrorBound());
+        assertTrue(frequency.isExact(1));
+        assertFalse(frequency.isExact(2));
+    }
+
+    /**
+     * Слово в запросе приводится к нижнему регистру так же, как в accept, независимо от локали
+     */
+    @Test
+    public void lookupIgnoresLocale() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            StreamingWordFrequency frequency = new StreamingWordFrequency(10);
+            frequency.accept("TITLE title İstanbul");
+            assertEquals(2, frequency.getEstimate("TITLE"));
+            assertEquals(0, frequency.getError("TITLE"));
+            assertEquals(1, frequency.getEstimate("İSTANBUL"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void negativeK() {
+        StreamingWordFrequency frequency = new StreamingWordFrequency(2);
+        frequency.accept("a a b");
+        assertEquals(Collections.emptyList(), frequency.top(-1));
+        assertEquals(Collections.emptyList(), frequency.top(0));
+        assertEquals(frequency.isExact(0), frequency.isExact(-5));
+    }
+
+    /**
+     * Книга с распределением, близким к Ципфу: оценки не меньше настоящих значений и превышают их не больше,
+     * чем на error <= N / capacity, а top 10 совпадает с точным ответом wordFrequency
+     */
+    @Test
+    public void zipfAgainstExact() {
+        List<String> book = WordFrequencyTest.corpus(new Random(42), 100_000);
+        WordCounter exact = new WordCounter();
+        book.forEach(exact::addLine);
+        for (int capacity : new int[]{100, 1_000, 10_000}) {
+            StreamingWordFrequency frequency = new StreamingWordFrequency(capacity);
+            book.forEach(frequency);
+            long total = frequency.getTotal();
+            assertTrue(frequency.getErrorBound() <= total / capacity);
+            for (String word : frequency.top(capacity)) {
+                long count = exact.count(word);
+                long estimate = frequency.getEstimate(word);
+                assertTrue(estimate >= count);
+                assertTrue(estimate - frequency.getError(word) <= count);
+                assertTrue(frequency.getError(word) <= frequency.getErrorBound());
+            }
+            List<String> top = frequency.top(10);
+            System.out.println("capacity " + capacity + ": error bound " + frequency.getErrorBound() + " of "
+                    + total + " words, exact top 10: " + frequency.isExact(10));
+            if (frequency.isExact(10)) {
+                assertEquals(exact.top(10), top);
+            }
+        }
+        StreamingWordFrequency frequency = new StreamingWordFrequency(1_000);
+        book.forEach(frequency);
+        assertTrue(frequency.isExact(10));
+        assertEquals(WordFrequency.wordFrequency(book.stream()), frequency.top(10));
+    }
+}
@@ -1,15 +1,35 @@
 package ru.mail.polis.homework.collections.streams;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 
 public class WordFrequencyTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void simple() {
         Stream<String> innerStream = Arrays.stream(new String[]{"Мама мыла мыла мыла раму!"});
@@ -40,4 +60,133 @@ public class WordFrequencyTest {
         List<String> actual = WordFrequency.wordFrequency(innerStream);
         assertEquals(expected, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void tiesAndCase() {
+        Stream<String> innerStream = Stream.of("b B a A c; C? d-D d", "", "   ", "ёлка Ёлка 42 42");
+        List<String> expected = Arrays.asList("d", "42", "a", "b", "c", "ёлка");
+        assertEquals(expected, WordFrequency.wordFrequency(innerStream));
+        assertEquals(Collections.emptyList(), WordFrequency.wordFrequency(Stream.empty()));
+    }
+
+    /**
+     * Книга на несколько мегабайт против наивного groupingBy + sorted
+     */
+    @Test
+    public void sameAsNaiveOnBigCorpus() {
+        List<String> book = corpus(new Random(42), 200_000);
+        System.out.println("corpus: " + book.stream().mapToInt(String::length).sum() / 1024 + " KB");
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            List<String> expected = naive(book.stream());
+            long naive = System.nanoTime() - start;
+            start = System.nanoTime();
+            List<String> actual = WordFrequency.wordFrequency(book.stream());
+            long fast = System.nanoTime() - start;
+            System.out.println("naive: " + TimeUnit.NANOSECONDS.toMillis(naive) + " ms, single pass: "
+                    + TimeUnit.NANOSECONDS.toMillis(fast) + " ms");
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Маленькие куски: границы кусков попадают куда угодно, в том числе в середину двухбайтовых
+     * русских букв, и должны сдвигаться до пробелов
+     */
+    @Test
+    public void fileSameAsStreamWithTinyChunks() throws IOException {
+        List<String> lines = corpus(new Random(7), 300);
+        lines.add("Шел я шел,а потом еще шел,и наконец,дошел");
+        lines.add("");
+        lines.add("ОченьДлинноеСловоБезПробелов" + String.join("", Collections.nCopies(100, "ъ")));
+        Path file = folder.newFile().toPath();
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        for (int n : new int[]{1, 10, 100, 100_000}) {
+            List<String> expected = WordFrequency.wordFrequency(lines.stream(), n);
+            for (int chunkSize : new int[]{1, 7, 64, 1 << 20}) {
+                assertEquals(expected, WordFrequency.wordFrequency(file, n, pool, chunkSize));
+            }
+        }
+        pool.shutdown();
+        assertEquals(Collections.emptyList(), WordFrequency.wordFrequency(folder.newFile().toPath(), 10));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void fileNotUtf8() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[]{'a', ' ', (byte) 0xFF, ' ', 'b'});
+        WordFrequency.wordFrequency(file, 10);
+    }
+
+    /**
+     * Файл на несколько десятков мегабайт на разном количестве потоков
+     */
+    @Test
+    public void fileScaling() throws IOException {
+        Path file = folder.newFile().toPath();
+        List<String> book = corpus(new Random(42), 200_000);
+        for (int i = 0; i < 3; i++) {
+            Files.write(file, book, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+        System.out.println("file: " + Files.size(file) / (1 << 20) + " MB, cores: "
+                + Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        List<String> expected;
+        try (Stream<String> lines = Files.lines(file)) {
+            expected = WordFrequency.wordFrequency(lines, 20);
+        }
+        System.out.println("Files.lines: " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            start = System.nanoTime();
+            List<String> actual = WordFrequency.wordFrequency(file, 20, pool, 1 << 20);
+            System.out.println(threads + " threads: " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    + " ms");
+            pool.shutdown();
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static List<String> naive(Stream<String> lines) {
+        return lines.flatMap(line -> Arrays.stream(line.split("[^\\p{L}\\p{Nd}]+")))
+                .filter(word -> !word.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Строки из слов с распределением, близким к Ципфу, в случайном регистре и со знаками препинания
+     */
+    static List<String> corpus(Random random, int lines) {
+        String[] dictionary = new String[50_000];
+        for (int i = 0; i < dictionary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                boolean cyrillic = random.nextInt(4) == 0;
+                word.append(cyrillic ? (char) ('а' + random.nextInt(32)) : (char) ('a' + random.nextInt(26)));
+            }
+            dictionary[i] = word.toString();
+        }
+        String separators = "  ,.!:-?;";
+        List<String> book = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            StringBuilder line = new StringBuilder();
+            int words = 3 + random.nextInt(12);
+            for (int j = 0; j < words; j++) {
+                String word = dictionary[(int) Math.pow(dictionary.length, random.nextDouble()) - 1];
+                line.append(random.nextBoolean() ? word : word.toUpperCase())
+                        .append(separators.charAt(random.nextInt(separators.length())));
+            }
+            book.add(line.toString());
+        }
+        return book;
+    }
+}
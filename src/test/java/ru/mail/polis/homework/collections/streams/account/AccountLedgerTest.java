@@ -0,0 +1,92 @@
+package ru.mail.polis.homework.collections.streams.account;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AccountLedgerTest {
+
+    private static final long MAX_DATE = 1_000_000;
+
+    /**
+     * Случайный банк: много одинаковых балансов, транзакции в одно и то же время, переводы самому себе
+     */
+    @Test
+    public void sameAsStreams() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<Account> accounts = bank(random, 1 + random.nextInt(30), random.nextInt(300), 20);
+            AccountLedger ledger = new AccountLedger(accounts);
+            for (int query = 0; query < 20; query++) {
+                long t = random.nextInt(25) - 2;
+                int n = random.nextInt(accounts.size() + 2);
+                assertEquals(Task.paymentsSumByAccount(accounts, t, n), ledger.topBalancesExceptRichest(t, n));
+                Account account = accounts.get(random.nextInt(accounts.size()));
+                assertEquals(Task.balanceAt(account, t), ledger.balanceAt(account.getId(), t));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownAccount() {
+        new AccountLedger(new ArrayList<>()).balanceAt("nobody", 0);
+    }
+
+    /**
+     * 10^5 аккаунтов и 10^6 транзакций: запросы на разные моменты времени через стримы и через индекс
+     */
+    @Test
+    public void benchmark() {
+        Random random = new Random(7);
+        List<Account> accounts = bank(random, 100_000, 1_000_000, MAX_DATE);
+        long start = System.nanoTime();
+        AccountLedger ledger = new AccountLedger(accounts);
+        System.out.println("ledger build: " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+
+        int queries = 3;
+        long[] moments = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            moments[i] = random.nextInt((int) MAX_DATE);
+        }
+        start = System.nanoTime();
+        List<List<String>> expected = new ArrayList<>();
+        for (long t : moments) {
+            expected.add(Task.paymentsSumByAccount(accounts, t, 10));
+        }
+        long streams = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            assertEquals(expected.get(i), ledger.topBalancesExceptRichest(moments[i], 10));
+        }
+        long indexed = System.nanoTime() - start;
+        System.out.println("per query: streams " + TimeUnit.NANOSECONDS.toMillis(streams) / queries + " ms, ledger "
+                + TimeUnit.NANOSECONDS.toMillis(indexed) / queries + " ms");
+    }
+
+    /**
+     * accounts аккаунтов с балансами из маленького диапазона и transactions переводов между ними
+     * в моменты времени [0, maxDate)
+     */
+    static List<Account> bank(Random random, int accounts, int transactions, long maxDate) {
+        List<Account> result = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            result.add(new Account("account" + i, random.nextInt(10) * 100));
+        }
+        for (int i = 0; i < transactions; i++) {
+            Account from = result.get(random.nextInt(accounts));
+            Account to = result.get(random.nextInt(accounts));
+            Transaction transaction = new Transaction("transaction" + i, (long) (random.nextDouble() * maxDate),
+                    from, to, 1 + random.nextInt(100));
+            from.addTransaction(transaction);
+            if (to != from) {
+                to.addTransaction(transaction);
+            }
+        }
+        return result;
+    }
+}
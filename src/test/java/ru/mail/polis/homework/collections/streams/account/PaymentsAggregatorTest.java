@@ -0,0 +1,77 @@
+package ru.mail.polis.homework.collections.streams.account;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PaymentsAggregatorTest {
+
+    @Test
+    public void oneByOne() {
+        Account first = new Account("1", 0);
+        Account second = new Account("2", 0);
+        PaymentsAggregator aggregator = new PaymentsAggregator();
+        assertTrue(aggregator.add(new Transaction("a", 1, first, second, 300)));
+        assertTrue(aggregator.add(new Transaction("b", 2, first, second, 300)));
+        assertFalse(aggregator.add(new Transaction("a", 1, first, second, 300)));
+        aggregator.accept(new Transaction("c", 3, second, first, 200));
+        assertEquals(600, aggregator.getSum("1"));
+        assertEquals(200, aggregator.getSum("2"));
+        assertEquals(0, aggregator.getSum("3"));
+        assertEquals(3, aggregator.size());
+    }
+
+    /**
+     * Пачки с повторами, переигранные из нескольких потоков, дают тот же ответ, что и Task по всем транзакциям
+     */
+    @Test
+    public void concurrentReplay() throws Exception {
+        Random random = new Random(42);
+        List<Account> accounts = AccountLedgerTest.bank(random, 1_000, 200_000, 1_000);
+        Set<Transaction> unique = new LinkedHashSet<>();
+        accounts.forEach(account -> unique.addAll(account.getTransactions()));
+        List<Transaction> transactions = new ArrayList<>(unique);
+
+        PaymentsAggregator aggregator = new PaymentsAggregator();
+        List<Thread> threads = new ArrayList<>();
+        long[] added = new long[4];
+        for (int t = 0; t < added.length; t++) {
+            int thread = t;
+            List<Transaction> replay = new ArrayList<>(transactions);
+            Collections.shuffle(replay, new Random(t));
+            threads.add(new Thread(() -> {
+                for (int from = 0; from < replay.size(); from += 50_000) {
+                    added[thread] += aggregator.addAll(replay.subList(from, Math.min(replay.size(), from + 50_000)));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = 0;
+        for (long count : added) {
+            total += count;
+        }
+        assertEquals(transactions.size(), total);
+        assertEquals(transactions.size(), aggregator.size());
+        assertEquals(Task.paymentsSumByAccount(transactions), aggregator.snapshot());
+        assertEquals(0, aggregator.addAll(transactions));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullId() {
+        Account account = new Account("1", 0);
+        new PaymentsAggregator().add(new Transaction(null, 0, account, account, 1));
+    }
+}
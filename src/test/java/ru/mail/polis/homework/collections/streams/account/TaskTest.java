@@ -0,0 +1,57 @@
+package ru.mail.polis.homework.collections.streams.account;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskTest {
+
+    /**
+     * Пример из описания Task: t0 < t1 < t2 < t3
+     */
+    @Test
+    public void example() {
+        Account first = new Account("1", 500);
+        Account second = new Account("2", 1000);
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("a", 1, first, second, 300),
+                new Transaction("b", 2, first, second, 300),
+                new Transaction("c", 3, second, first, 200));
+        for (Transaction transaction : transactions) {
+            first.addTransaction(transaction);
+            second.addTransaction(transaction);
+        }
+        List<Account> accounts = Arrays.asList(first, second);
+        AccountLedger ledger = new AccountLedger(accounts);
+
+        assertEquals(Collections.singletonList("2"), Task.paymentsSumByAccount(accounts, 0, 1));
+        assertEquals(Collections.singletonList("2"), Task.paymentsSumByAccount(ledger, 0, 1));
+        assertEquals(Collections.singletonList("1"), Task.paymentsSumByAccount(accounts, 3, 5));
+        assertEquals(Collections.singletonList("1"), Task.paymentsSumByAccount(ledger, 3, 5));
+        assertEquals(900, ledger.balanceAt("1", 0));
+        assertEquals(600, ledger.balanceAt("2", 0));
+        assertEquals(600, ledger.balanceAt("1", 1));
+        assertEquals(500, ledger.balanceAt("1", 100));
+
+        Map<String, Long> payments = new HashMap<>();
+        payments.put("1", 600L);
+        payments.put("2", 200L);
+        assertEquals(payments, Task.paymentsSumByAccount(transactions));
+    }
+
+    @Test
+    public void emptyAndZero() {
+        assertEquals(Collections.emptyList(), Task.paymentsSumByAccount(Collections.emptyList(), 0, 3));
+        assertEquals(Collections.emptyList(),
+                Task.paymentsSumByAccount(new AccountLedger(Collections.emptyList()), 0, 3));
+        List<Account> accounts = Arrays.asList(new Account("a", 1), new Account("b", 2));
+        assertEquals(Collections.emptyList(), Task.paymentsSumByAccount(new AccountLedger(accounts), 0, 0));
+        assertEquals(Collections.emptyMap(), Task.paymentsSumByAccount(Collections.emptyList()));
+    }
+}
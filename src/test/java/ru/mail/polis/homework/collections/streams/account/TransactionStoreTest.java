@@ -0,0 +1,120 @@
+package ru.mail.polis.homework.collections.streams.account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TransactionStoreTest {
+
+    @Test
+    public void sameAsStreams() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<Account> bank = AccountLedgerTest.bank(random, 1 + random.nextInt(30), random.nextInt(300), 20);
+            // в половине раундов часть получателей не входит в список аккаунтов
+            List<Account> accounts = round % 2 == 0 ? bank : bank.subList(0, 1 + random.nextInt(bank.size()));
+            TransactionStore store = TransactionStore.of(accounts);
+            assertEquals(Task.paymentsSumByAccount(transactions(accounts)), Task.paymentsSumByAccount(store));
+            for (int query = 0; query < 20; query++) {
+                long t = random.nextInt(25) - 2;
+                int n = random.nextInt(accounts.size() + 2);
+                assertEquals(Task.paymentsSumByAccount(accounts, t, n), Task.paymentsSumByAccount(store, t, n));
+                Account account = accounts.get(random.nextInt(accounts.size()));
+                assertEquals(Task.balanceAt(account, t), store.balanceAt(account.getId(), t));
+            }
+        }
+    }
+
+    /**
+     * Получатель, которого нет в списке аккаунтов, учитывается в балансах, но не попадает в рейтинг
+     */
+    @Test
+    public void counterpartyOutsideListIsNotRanked() {
+        Account x = new Account("x", 100);
+        Account y = new Account("y", 50);
+        Account z = new Account("z", 0);
+        x.addTransaction(new Transaction("1", 5, x, z, 30));
+        List<Account> accounts = Arrays.asList(x, y);
+        List<String> expected = Arrays.asList("y");
+        assertEquals(expected, Task.paymentsSumByAccount(accounts, 0, 5));
+        assertEquals(expected, Task.paymentsSumByAccount(new AccountLedger(accounts), 0, 5));
+        TransactionStore store = TransactionStore.of(accounts);
+        assertEquals(expected, Task.paymentsSumByAccount(store, 0, 5));
+        assertEquals(expected, Task.paymentsSumByAccount(store, 10, 5));
+        assertEquals(-30, store.balanceAt("z", 0));
+    }
+
+    @Test
+    public void unknownAccountsAreAdded() {
+        TransactionStore store = new TransactionStore();
+        store.addAccount("a", 100);
+        store.addTransaction("t1", 5, "a", "b", 30);
+        assertEquals("t1", store.transactionId(0));
+        assertEquals(2, store.accounts());
+        assertEquals(130, store.balanceAt("a", 0));
+        assertEquals(-30, store.balanceAt("b", 0));
+        assertEquals(0, store.balanceAt("b", 5));
+    }
+
+    /**
+     * Память и время запросов: объекты Account/Transaction против колонок на 10^6 транзакций
+     */
+    @Test
+    public void benchmark() {
+        Random random = new Random(7);
+        long before = usedMemory();
+        List<Account> accounts = AccountLedgerTest.bank(random, 100_000, 1_000_000, 1_000_000);
+        List<Transaction> transactions = transactions(accounts);
+        long objects = usedMemory() - before;
+        before = usedMemory();
+        TransactionStore store = TransactionStore.of(accounts);
+        long columns = usedMemory() - before;
+        System.out.println("objects: " + objects / transactions.size() + " bytes/transaction, columns: "
+                + columns / store.size() + " bytes/transaction");
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            Map<String, Long> expected = Task.paymentsSumByAccount(transactions);
+            long streams = System.nanoTime() - start;
+            start = System.nanoTime();
+            Map<String, Long> actual = Task.paymentsSumByAccount(store);
+            long columnar = System.nanoTime() - start;
+            assertEquals(expected, actual);
+
+            start = System.nanoTime();
+            List<String> expectedTop = Task.paymentsSumByAccount(accounts, 500_000, 10);
+            long streamsTop = System.nanoTime() - start;
+            start = System.nanoTime();
+            List<String> actualTop = Task.paymentsSumByAccount(store, 500_000, 10);
+            long columnarTop = System.nanoTime() - start;
+            assertEquals(expectedTop, actualTop);
+            System.out.println("payments: objects " + TimeUnit.NANOSECONDS.toMillis(streams) + " ms, columns "
+                    + TimeUnit.NANOSECONDS.toMillis(columnar) + " ms; top at t: objects "
+                    + TimeUnit.NANOSECONDS.toMillis(streamsTop) + " ms, columns "
+                    + TimeUnit.NANOSECONDS.toMillis(columnarTop) + " ms");
+        }
+    }
+
+    private static List<Transaction> transactions(List<Account> accounts) {
+        Set<Transaction> unique = new LinkedHashSet<>();
+        accounts.forEach(account -> unique.addAll(account.getTransactions()));
+        return new ArrayList<>(unique);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
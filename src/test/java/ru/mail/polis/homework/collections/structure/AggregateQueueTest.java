@@ -0,0 +1,379 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Одни и те же тесты для {@link IntAggregateQueue}, {@link LongAggregateQueue} и {@link DoubleAggregateQueue}.
+ * У каждой очереди агрегаты max (0), min (1), sum (2) и "первый" (3), который ассоциативен, но не коммутативен.
+ * Отдельно проверяются max(), min() и sum() очереди из maxMinSum().
+ * Значения целые и небольшие, поэтому сумма окна точна во всех трех типах.
+ */
+@RunWith(Parameterized.class)
+public class AggregateQueueTest {
+
+    private static final int WINDOW = 50_000;
+    private static final int OPERATIONS = 300_000;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> queues() {
+        return Arrays.asList(
+                new Object[]{"int",
+                        (Supplier<Queue>) () -> new IntQueue(
+                                new IntAggregateQueue(Math::max, Math::min, Integer::sum, (a, b) -> a)),
+                        (Supplier<Queue>) () -> new IntQueue(IntAggregateQueue.maxMinSum())},
+                new Object[]{"long",
+                        (Supplier<Queue>) () -> new LongQueue(
+                                new LongAggregateQueue(Math::max, Math::min, Long::sum, (a, b) -> a)),
+                        (Supplier<Queue>) () -> new LongQueue(LongAggregateQueue.maxMinSum())},
+                new Object[]{"double",
+                        (Supplier<Queue>) () -> new DoubleQueue(
+                                new DoubleAggregateQueue(Math::max, Math::min, Double::sum, (a, b) -> a)),
+                        (Supplier<Queue>) () -> new DoubleQueue(DoubleAggregateQueue.maxMinSum())});
+    }
+
+    private final Supplier<Queue> factory;
+    private final Supplier<Queue> maxMinSumFactory;
+
+    public AggregateQueueTest(String name, Supplier<Queue> factory, Supplier<Queue> maxMinSumFactory) {
+        this.factory = factory;
+        this.maxMinSumFactory = maxMinSumFactory;
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testAggregateEmptyQueue() {
+        factory.get().aggregate(0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPollEmptyQueue() {
+        Queue queue = factory.get();
+        queue.offer(1);
+        queue.poll();
+        queue.poll();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPeekAfterClear() {
+        Queue queue = factory.get();
+        queue.offer(1);
+        queue.offer(2);
+        queue.poll();
+        queue.offer(3);
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        queue.peek();
+    }
+
+    @Test
+    public void testSmallWindow() {
+        Queue queue = factory.get();
+        long[] values = {5, 1, 4, 2, 3};
+        for (long value : values) {
+            queue.offer(value);
+            if (queue.size() > 3) {
+                queue.poll();
+            }
+        }
+        assertEquals(4, queue.aggregate(0));
+        assertEquals(2, queue.aggregate(1));
+        assertEquals(9, queue.aggregate(2));
+        assertEquals(4, queue.aggregate(3));
+        assertEquals(4, queue.peek());
+    }
+
+    /**
+     * Скользящее окно большого размера против полного пересчета по окну
+     */
+    @Test
+    public void testSlidingWindowAgainstBruteForce() {
+        Queue queue = factory.get();
+        Deque<Long> window = new ArrayDeque<>();
+        Random random = new Random(42);
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            long value = random.nextInt(20_001) - 10_000;
+            queue.offer(value);
+            window.addLast(value);
+            sum += value;
+            if (window.size() > WINDOW) {
+                long oldest = window.removeFirst();
+                sum -= oldest;
+                assertEquals(oldest, queue.poll());
+            }
+            if (i % 997 == 0) {
+                assertEquals(window.stream().mapToLong(Long::longValue).max().getAsLong(), queue.aggregate(0));
+                assertEquals(window.stream().mapToLong(Long::longValue).min().getAsLong(), queue.aggregate(1));
+                assertEquals(sum, queue.aggregate(2));
+                assertEquals(window.getFirst().longValue(), queue.aggregate(3));
+                assertEquals(window.size(), queue.size());
+            }
+        }
+    }
+
+    /**
+     * Окно из 100 элементов: передний стек часто пустеет, и агрегат "первый" проверяется на каждом шаге
+     */
+    @Test
+    public void testNonCommutativeOperator() {
+        Queue queue = factory.get();
+        Deque<Long> window = new ArrayDeque<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextInt(1_000_000);
+            queue.offer(value);
+            window.addLast(value);
+            if (window.size() > 100) {
+                assertEquals(window.removeFirst().longValue(), queue.poll());
+            }
+            assertEquals(window.getFirst().longValue(), queue.aggregate(3));
+            assertEquals(window.getFirst().longValue(), queue.peek());
+        }
+    }
+
+    @Test
+    public void testMaxMinSum() {
+        Queue queue = maxMinSumFactory.get();
+        long[] values = {5, -1, 4, 2, 3};
+        for (long value : values) {
+            queue.offer(value);
+            if (queue.size() > 3) {
+                queue.poll();
+            }
+            assertEquals(queue.aggregate(0), queue.max());
+            assertEquals(queue.aggregate(1), queue.min());
+            assertEquals(queue.aggregate(2), queue.sum());
+        }
+        assertEquals(4, queue.max());
+        assertEquals(2, queue.min());
+        assertEquals(9, queue.sum());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testMaxEmptyQueue() {
+        maxMinSumFactory.get().max();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMaxWithoutMaxMinSum() {
+        Queue queue = factory.get();
+        queue.offer(1);
+        queue.max();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoOperators() {
+        new LongAggregateQueue();
+    }
+
+    /**
+     * Общий вид трех очередей для тестов, значения передаются как long
+     */
+    private interface Queue {
+        void offer(long value);
+
+        long poll();
+
+        long peek();
+
+        long aggregate(int index);
+
+        long max();
+
+        long min();
+
+        long sum();
+
+        int size();
+
+        boolean isEmpty();
+
+        void clear();
+    }
+
+    private static class IntQueue implements Queue {
+        private final IntAggregateQueue queue;
+
+        IntQueue(IntAggregateQueue queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void offer(long value) {
+            queue.offer((int) value);
+        }
+
+        @Override
+        public long poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public long peek() {
+            return queue.peek();
+        }
+
+        @Override
+        public long aggregate(int index) {
+            return queue.aggregate(index);
+        }
+
+        @Override
+        public long max() {
+            return queue.max();
+        }
+
+        @Override
+        public long min() {
+            return queue.min();
+        }
+
+        @Override
+        public long sum() {
+            return queue.sum();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+    }
+
+    private static class LongQueue implements Queue {
+        private final LongAggregateQueue queue;
+
+        LongQueue(LongAggregateQueue queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void offer(long value) {
+            queue.offer(value);
+        }
+
+        @Override
+        public long poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public long peek() {
+            return queue.peek();
+        }
+
+        @Override
+        public long aggregate(int index) {
+            return queue.aggregate(index);
+        }
+
+        @Override
+        public long max() {
+            return queue.max();
+        }
+
+        @Override
+        public long min() {
+            return queue.min();
+        }
+
+        @Override
+        public long sum() {
+            return queue.sum();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+    }
+
+    private static class DoubleQueue implements Queue {
+        private final DoubleAggregateQueue queue;
+
+        DoubleQueue(DoubleAggregateQueue queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void offer(long value) {
+            queue.offer(value);
+        }
+
+        @Override
+        public long poll() {
+            return (long) queue.poll();
+        }
+
+        @Override
+        public long peek() {
+            return (long) queue.peek();
+        }
+
+        @Override
+        public long aggregate(int index) {
+            return (long) queue.aggregate(index);
+        }
+
+        @Override
+        public long max() {
+            return (long) queue.max();
+        }
+
+        @Override
+        public long min() {
+            return (long) queue.min();
+        }
+
+        @Override
+        public long sum() {
+            return (long) queue.sum();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+    }
+}
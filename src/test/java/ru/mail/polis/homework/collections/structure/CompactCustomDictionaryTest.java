@@ -0,0 +1,102 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Проверки, специфичные для компактного хранения, общие проверки словарей - в {@link SimilarWordsDictionaryTest}
+ */
+public class CompactCustomDictionaryTest {
+
+    private static final int WORDS = 300_000;
+
+    @Test
+    public void testAddRemoveMany() {
+        CompactCustomDictionary compact = new CompactCustomDictionary();
+        CustomDictionary regular = new CustomDictionary();
+        List<String> words = shortWords(100_000, new Random(1));
+        for (String word : words) {
+            assertEquals(regular.add(word), compact.add(word));
+        }
+        for (int i = 0; i < words.size(); i += 2) {
+            assertEquals(regular.remove(words.get(i)), compact.remove(words.get(i)));
+        }
+        for (String word : shortWords(50_000, new Random(2))) {
+            assertEquals(regular.add(word), compact.add(word));
+        }
+        assertEquals(regular.size(), compact.size());
+        for (String word : words) {
+            assertEquals(regular.contains(word), compact.contains(word));
+            assertEquals(regular.getSimilarWords(word), compact.getSimilarWords(word));
+        }
+        assertFalse(compact.contains("not a word at all"));
+    }
+
+    /**
+     * Печатает занятую кучу на одно слово для обычного и компактного словаря. Разница занятой кучи после
+     * System.gc() зависит от сборщика мусора, поэтому числа только выводятся и не проверяются.
+     */
+    @Test
+    public void testBytesPerWord() {
+        List<String> words = randomWords(WORDS, new Random(42));
+        long regular = bytesPerWord(new CustomDictionary(), words);
+        long compact = bytesPerWord(new CompactCustomDictionary(), words);
+        System.out.println("CustomDictionary: " + regular + " bytes/word, "
+                + "CompactCustomDictionary: " + compact + " bytes/word");
+    }
+
+    /**
+     * Слова генерируются char[] -> String заново на каждое добавление, чтобы в словарь попадали
+     * собственные копии строк, как при загрузке словаря из файла.
+     */
+    private static long bytesPerWord(SimilarWordsDictionary dictionary, List<String> words) {
+        long before = usedHeap();
+        for (String word : words) {
+            dictionary.add(new String(word.toCharArray()));
+        }
+        long after = usedHeap();
+        assertEquals(words.size(), dictionary.size());
+        return (after - before) / words.size();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Короткие слова из нескольких букв: много повторов и слов с одинаковым набором букв
+     */
+    private static List<String> shortWords(int count, Random random) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            char[] word = new char[1 + random.nextInt(5)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = "abcdeABCDE".charAt(random.nextInt(10));
+            }
+            words.add(new String(word));
+        }
+        return words;
+    }
+
+    private static List<String> randomWords(int count, Random random) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            char[] word = new char[3 + random.nextInt(6)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ((random.nextInt(4) == 0 ? 'A' : 'a') + random.nextInt(26));
+            }
+            words.add(i + new String(word));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,219 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Многопоточные проверки {@link ConcurrentCustomDictionary}, общие проверки словарей -
+ * в {@link SimilarWordsDictionaryTest}
+ */
+public class ConcurrentCustomDictionaryTest {
+
+    private static final int READERS = 4;
+    private static final int WRITERS = 2;
+    private static final int WORDS_PER_WRITER = 2_000;
+
+    /**
+     * Каждый писатель добавляет по порядку слова с одним набором букв, а потом удаляет их в том же порядке.
+     * При атомарных add/remove любой снимок корзины - это непрерывный отрезок этой последовательности,
+     * другой снимок означает, что читатель увидел промежуточное состояние. Слово, которое никто
+     * не удаляет, должно быть видно всегда.
+     */
+    @Test
+    public void testConsistentSnapshots() throws Exception {
+        ConcurrentCustomDictionary dictionary = new ConcurrentCustomDictionary();
+        dictionary.add("stable");
+        List<List<String>> sequences = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            sequences.add(anagrams("writer" + (char) ('a' + w), WORDS_PER_WRITER));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> error = new AtomicReference<>();
+        CyclicBarrier barrier = new CyclicBarrier(READERS + WRITERS);
+        List<Thread> threads = new ArrayList<>();
+        for (List<String> sequence : sequences) {
+            threads.add(new Thread(() -> {
+                await(barrier);
+                for (String word : sequence) {
+                    if (!dictionary.add(word)) {
+                        error.set("not added " + word);
+                    }
+                }
+                for (String word : sequence) {
+                    if (!dictionary.remove(word)) {
+                        error.set("not removed " + word);
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                await(barrier);
+                while (running.get() && error.get() == null) {
+                    if (!dictionary.contains("stable")) {
+                        error.set("stable word is not visible");
+                    }
+                    for (List<String> sequence : sequences) {
+                        String problem = checkSnapshot(dictionary.getSimilarWords(sequence.get(0)), sequence);
+                        if (problem != null) {
+                            error.set(problem);
+                        }
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (int i = 0; i < WRITERS; i++) {
+            threads.get(i).join();
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(error.get());
+        assertEquals(1, dictionary.size());
+        assertTrue(dictionary.contains("stable"));
+    }
+
+    @Test
+    public void testReadThroughput() throws Exception {
+        CustomDictionary synchronizedDictionary = new CustomDictionary() {
+            @Override
+            public synchronized boolean add(String value) {
+                return super.add(value);
+            }
+
+            @Override
+            public synchronized boolean contains(String value) {
+                return super.contains(value);
+            }
+
+            @Override
+            public synchronized boolean remove(String value) {
+                return super.remove(value);
+            }
+
+            @Override
+            public synchronized List<String> getSimilarWords(String value) {
+                return super.getSimilarWords(value);
+            }
+        };
+        long synchronizedOps = readThroughput(synchronizedDictionary);
+        long concurrentOps = readThroughput(new ConcurrentCustomDictionary());
+        System.out.println("synchronized: " + synchronizedOps + " reads/ms, "
+                + "concurrent: " + concurrentOps + " reads/ms");
+    }
+
+    /**
+     * READERS потоков читают, один поток все время добавляет и удаляет слова
+     */
+    private static long readThroughput(SimilarWordsDictionary dictionary) throws Exception {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            char[] word = new char[3 + random.nextInt(6)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(26));
+            }
+            words.add(new String(word));
+        }
+        words.forEach(dictionary::add);
+        int readsPerThread = 500_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                String word = "writer" + (i % 100);
+                dictionary.add(word);
+                dictionary.remove(word);
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> {
+                for (int i = 0; i < readsPerThread; i++) {
+                    dictionary.contains(words.get(i % words.size()));
+                }
+            }));
+        }
+        writer.start();
+        long start = System.nanoTime();
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        running.set(false);
+        writer.join();
+        return (long) readsPerThread * READERS / elapsed;
+    }
+
+    /**
+     * @return - описание ошибки или null, если снимок - непрерывный отрезок sequence
+     */
+    private static String checkSnapshot(List<String> snapshot, List<String> sequence) {
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+        int first = sequence.indexOf(snapshot.get(0));
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (first < 0 || first + i >= sequence.size() || !sequence.get(first + i).equals(snapshot.get(i))) {
+                return "inconsistent snapshot " + snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * count разных перестановок букв base
+     */
+    private static List<String> anagrams(String base, int count) {
+        List<String> result = new ArrayList<>(count);
+        permute(base.toCharArray(), 0, result, count);
+        return result;
+    }
+
+    private static void permute(char[] chars, int from, List<String> result, int count) {
+        if (result.size() >= count) {
+            return;
+        }
+        if (from == chars.length) {
+            String word = new String(chars);
+            if (!result.contains(word)) {
+                result.add(word);
+            }
+            return;
+        }
+        for (int i = from; i < chars.length; i++) {
+            swap(chars, from, i);
+            permute(chars, from + 1, result, count);
+            swap(chars, from, i);
+        }
+    }
+
+    private static void swap(char[] chars, int i, int j) {
+        char tmp = chars[i];
+        chars[i] = chars[j];
+        chars[j] = tmp;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
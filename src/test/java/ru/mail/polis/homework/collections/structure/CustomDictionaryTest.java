@@ -2,6 +2,8 @@ package ru.mail.polis.homework.collections.structure;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -261,6 +263,48 @@ public class CustomDictionaryTest {
         assertTrue(result.contains(str2));
     }
 
-
-
-}
\ No newline at end of file
+    @Test
+    public void testMillionWords() {
+        CustomDictionary dictionary = new CustomDictionary();
+        Random random = new Random(42);
+        String[] words = new String[1_000_000];
+        for (int i = 0; i < words.length; i++) {
+            char[] word = new char[3 + random.nextInt(8)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(26));
+            }
+            words[i] = new String(word);
+        }
+        int added = 0;
+        long start = System.nanoTime();
+        for (String word : words) {
+            if (dictionary.add(word)) {
+                added++;
+            }
+        }
+        long addTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < words.length; i += 10) {
+            found += dictionary.getSimilarWords(words[i].toUpperCase()).size();
+        }
+        long similarTime = System.nanoTime() - start;
+        assertTrue(found >= words.length / 10);
+        System.out.println("10^6 words: add " + TimeUnit.NANOSECONDS.toMillis(addTime) + " ms ("
+                + addTime / words.length + " ns/word), 10^5 getSimilarWords "
+                + TimeUnit.NANOSECONDS.toMillis(similarTime) + " ms (" + similarTime / (words.length / 10)
+                + " ns/query)");
+
+        dictionary.add("Listen");
+        dictionary.add("silent");
+        dictionary.add("ENLIST");
+
+        assertEquals(added + 3, dictionary.size());
+        List<String> result = dictionary.getSimilarWords("tinsel");
+        assertTrue(result.contains("Listen"));
+        assertTrue(result.contains("silent"));
+        assertTrue(result.contains("ENLIST"));
+        assertTrue(dictionary.remove("silent"));
+        assertFalse(dictionary.getSimilarWords("tinsel").contains("silent"));
+    }
+}
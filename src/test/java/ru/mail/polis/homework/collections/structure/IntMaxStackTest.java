@@ -0,0 +1,95 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.EmptyStackException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntMaxStackTest {
+
+    private static final int OPERATIONS = 5_000_000;
+
+    @Test(expected = EmptyStackException.class)
+    public void testGetMaxValueInEmptyStack() {
+        new IntMaxStack().getMaxValue();
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void testPopEmptyStack() {
+        IntMaxStack stack = new IntMaxStack();
+        stack.push(1);
+        stack.pop();
+        stack.pop();
+    }
+
+    @Test
+    public void testGrowFromZeroCapacity() {
+        IntMaxStack stack = new IntMaxStack(0);
+        for (int i = 0; i < 100; i++) {
+            stack.push(i);
+        }
+        assertEquals(100, stack.size());
+        assertEquals(99, stack.getMaxValue());
+        assertEquals(99, stack.peek());
+    }
+
+    @Test
+    public void testSameAsMaxStack() {
+        IntMaxStack intStack = new IntMaxStack();
+        MaxStack stack = new MaxStack();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            if (stack.isEmpty() || random.nextInt(3) > 0) {
+                int value = random.nextInt(1000) - 500;
+                intStack.push(value);
+                stack.push(value);
+            } else {
+                assertEquals(stack.pop().intValue(), intStack.pop());
+            }
+            assertEquals(stack.size(), intStack.size());
+            if (!stack.isEmpty()) {
+                assertEquals(stack.peek().intValue(), intStack.peek());
+                assertEquals(stack.getMaxValue().intValue(), intStack.getMaxValue());
+            }
+        }
+    }
+
+    /**
+     * Сравнение времени одинаковой нагрузки на MaxStack и IntMaxStack
+     */
+    @Test
+    public void testCompareWithMaxStack() {
+        long checksum = 0;
+        long maxStackTime = System.nanoTime();
+        MaxStack stack = new MaxStack();
+        for (int i = 0; i < OPERATIONS; i++) {
+            stack.push(i % 1000);
+            if (i % 3 == 2) {
+                checksum += stack.pop();
+            }
+            checksum += stack.getMaxValue();
+        }
+        maxStackTime = System.nanoTime() - maxStackTime;
+
+        long intChecksum = 0;
+        long intMaxStackTime = System.nanoTime();
+        IntMaxStack intStack = new IntMaxStack();
+        for (int i = 0; i < OPERATIONS; i++) {
+            intStack.push(i % 1000);
+            if (i % 3 == 2) {
+                intChecksum += intStack.pop();
+            }
+            intChecksum += intStack.getMaxValue();
+        }
+        intMaxStackTime = System.nanoTime() - intMaxStackTime;
+
+        System.out.println("MaxStack: " + TimeUnit.NANOSECONDS.toMillis(maxStackTime) + " ms, "
+                + "IntMaxStack: " + TimeUnit.NANOSECONDS.toMillis(intMaxStackTime) + " ms");
+        assertEquals(checksum, intChecksum);
+        assertTrue(intStack.size() > 0);
+    }
+}
@@ -1,6 +1,14 @@
 package ru.mail.polis.homework.collections.structure;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -112,4 +120,113 @@ public class MaxStackTest {
         assertEquals(Integer.valueOf(3), stack.getMaxValue());
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Методы Vector, итераторы и subList меняют стек в обход push/pop
+     */
+    @Test
+    public void testVectorMutators() {
+        MaxStack stack = new MaxStack();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(1000);
+            int index = stack.isEmpty() ? 0 : random.nextInt(stack.size());
+            switch (stack.isEmpty() ? 0 : random.nextInt(12)) {
+                case 0:
+                    stack.add(value);
+                    break;
+                case 1:
+                    stack.addElement(value);
+                    break;
+                case 2:
+                    stack.insertElementAt(value, index);
+                    break;
+                case 3:
+                    stack.add(index, value);
+                    break;
+                case 4:
+                    stack.remove(index);
+                    break;
+                case 5:
+                    stack.remove(stack.get(index));
+                    break;
+                case 6:
+                    stack.set(index, value);
+                    break;
+                case 7:
+                    stack.setElementAt(value, index);
+                    break;
+                case 8:
+                    Iterator<Integer> iterator = stack.listIterator(index);
+                    iterator.next();
+                    iterator.remove();
+                    break;
+                case 9:
+                    stack.subList(index, Math.min(stack.size(), index + 3)).clear();
+                    break;
+                case 10:
+                    stack.addAll(index, Arrays.asList(value, value / 2));
+                    break;
+                default:
+                    stack.push(value);
+                    stack.pop();
+                    break;
+            }
+            if (stack.isEmpty()) {
+                continue;
+            }
+            assertEquals(Collections.max(stack), stack.getMaxValue());
+        }
+        stack.clear();
+        stack.push(7);
+        assertEquals(Integer.valueOf(7), stack.getMaxValue());
+        stack.removeAllElements();
+        stack.addAll(Arrays.asList(1, 9, 3));
+        assertEquals(Integer.valueOf(9), stack.getMaxValue());
+        stack.removeIf(v -> v == 9);
+        assertEquals(Integer.valueOf(3), stack.getMaxValue());
+        stack.replaceAll(v -> v * 10);
+        assertEquals(Integer.valueOf(30), stack.getMaxValue());
+        stack.setSize(1);
+        assertEquals(Integer.valueOf(10), stack.getMaxValue());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        MaxStack stack = new MaxStack();
+        stack.push(3);
+        stack.push(8);
+        stack.push(5);
+        assertEquals(Integer.valueOf(8), stack.getMaxValue());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(stack);
+        }
+        MaxStack copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (MaxStack) in.readObject();
+        }
+        assertEquals(stack, copy);
+        assertEquals(Integer.valueOf(8), copy.getMaxValue());
+        copy.pop();
+        copy.pop();
+        assertEquals(Integer.valueOf(3), copy.getMaxValue());
+        copy.push(4);
+        assertEquals(Integer.valueOf(4), copy.getMaxValue());
+    }
+
+    @Test
+    public void testClone() {
+        MaxStack stack = new MaxStack();
+        stack.push(1);
+        stack.push(5);
+        assertEquals(Integer.valueOf(5), stack.getMaxValue());
+
+        MaxStack clone = (MaxStack) stack.clone();
+        clone.pop();
+        clone.push(2);
+        assertEquals(Integer.valueOf(2), clone.getMaxValue());
+        assertEquals(Integer.valueOf(5), stack.getMaxValue());
+    }
+}
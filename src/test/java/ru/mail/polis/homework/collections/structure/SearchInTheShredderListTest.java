@@ -1,7 +1,11 @@
 package ru.mail.polis.homework.collections.structure;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -54,6 +58,144 @@ public class SearchInTheShredderListTest {
         assertNull(list.positionPartString("троглодит"));
     }
 
+    @Test
+    public void testUnevenSplit() {
+        SearchInTheShredderList list = generate();
+        list.add("к");
+        list.add("обольд");
+        list.add("абвгдеж");
+        list.add("з");
+        assertArrayEquals(new int[]{34, 35}, list.positionPartString("кобольд"));
+        assertArrayEquals(new int[]{36, 37}, list.positionPartString("абвгдежз"));
+    }
+
+    @Test
+    public void testManyParts() {
+        SearchInTheShredderList list = generate();
+        assertArrayEquals(new int[]{28, 1}, list.positionPartString("кобольд", 2));
+        assertArrayEquals(new int[]{32, 33, 31}, list.positionPartString("мамаша", 3));
+        assertArrayEquals(new int[]{27, 6}, list.positionPartString("тоскливость", 2));
+        assertArrayEquals(new int[]{16, 13, 32}, list.positionPartString("триппер" + "ма", 3));
+        assertNull(list.positionPartString("мамамама", 4));
+        assertNull(list.positionPartString("кобольд", 3));
+        assertNull(list.positionPartString("ма", 3));
+    }
+
+    /**
+     * Много одинаковых обрывков и слово, которое нельзя составить: без запоминания неудачных состояний
+     * перебор экспоненциален по длине слова
+     */
+    @Test
+    public void testRepeatedFragments() {
+        SearchInTheShredderList list = new SearchInTheShredderList();
+        for (int i = 0; i < 40; i++) {
+            list.add("a");
+            list.add("aa");
+            list.add("aaa");
+        }
+        for (int n : new int[]{20, 28, 32, 64, 256}) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                word.append('a');
+            }
+            long start = System.nanoTime();
+            assertNull(list.positionPartString(word + "b", n / 3));
+            assertNull(list.positionPartString(word.toString(), n / 4));
+            if (n <= 64) {
+                assertNotNull(list.positionPartString(word.toString(), n / 2));
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.println("a^" + n + "b: " + elapsed + " ms");
+        }
+    }
+
+    @Test
+    public void testNullFragment() {
+        SearchInTheShredderList list = new SearchInTheShredderList();
+        list.add(null);
+        list.add("ко");
+        list.add("больд");
+        assertNull(list.get(0));
+        assertArrayEquals(new int[]{1, 2}, list.positionPartString("кобольд"));
+        assertNotNull(new SearchInTheShredderList(Arrays.asList("a", null, "b"))
+                .positionPartString("ab"));
+    }
+
+    @Test
+    public void testMillionFragments() {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>();
+        SearchInTheShredderList list = new SearchInTheShredderList();
+        for (int i = 0; i < 500_000; i++) {
+            String word = randomWord(random, 4 + random.nextInt(12));
+            int split = 1 + random.nextInt(word.length() - 1);
+            list.add(word.substring(0, split));
+            list.add(word.substring(split));
+            words.add(word);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < words.size(); i += 50) {
+            int[] result = list.positionPartString(words.get(i));
+            assertNotNull(result);
+            assertEquals(words.get(i), list.get(result[0]) + list.get(result[1]));
+        }
+        System.out.println("10^4 lookups over 10^6 fragments: "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    @Test
+    public void testBatch() {
+        SearchInTheShredderList list = generate();
+        List<int[]> result = list.positionPartStrings(Arrays.asList("кобольд", "рикша", "мама", null, "жаворонок"));
+        assertEquals(5, result.size());
+        assertArrayEquals(new int[]{28, 1}, result.get(0));
+        assertNull(result.get(1));
+        assertArrayEquals(new int[]{32, 33}, result.get(2));
+        assertNull(result.get(3));
+        assertArrayEquals(new int[]{23, 0}, result.get(4));
+    }
+
+    /**
+     * Одна и та же большая пачка в пулах от 1 до availableProcessors потоков
+     */
+    @Test
+    public void testParallelBatchScaling() {
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>();
+        SearchInTheShredderList list = new SearchInTheShredderList();
+        for (int i = 0; i < 200_000; i++) {
+            String word = randomWord(random, 4 + random.nextInt(12));
+            int split = 1 + random.nextInt(word.length() - 1);
+            list.add(word.substring(0, split));
+            list.add(word.substring(split));
+            words.add(i % 10 == 0 ? word + "!" : word);
+        }
+        List<int[]> expected = new ArrayList<>();
+        for (String word : words) {
+            expected.add(list.positionPartString(word));
+        }
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long start = System.nanoTime();
+            List<int[]> result = list.positionPartStrings(words, pool);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            pool.shutdown();
+            System.out.println(threads + " threads: " + elapsed + " ms");
+            assertEquals(expected.size(), result.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), result.get(i));
+            }
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
     private SearchInTheShredderList generate() {
         //"кобольд", "триппер", "предпринимательство",
         //            "клювонос", "счерчивание", "тёска", "мошенница", "косость", "велорикша", "агамия",
@@ -0,0 +1,116 @@
+package ru.mail.polis.homework.collections.structure;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Общий контракт {@link SimilarWordsDictionary} для всех реализаций, включая порядок getSimilarWords
+ */
+@RunWith(Parameterized.class)
+public class SimilarWordsDictionaryTest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> dictionaries() {
+        return Arrays.asList(
+                new Object[]{"CustomDictionary", (Supplier<SimilarWordsDictionary>) CustomDictionary::new},
+                new Object[]{"CompactCustomDictionary",
+                        (Supplier<SimilarWordsDictionary>) CompactCustomDictionary::new},
+                new Object[]{"ConcurrentCustomDictionary",
+                        (Supplier<SimilarWordsDictionary>) ConcurrentCustomDictionary::new});
+    }
+
+    private final Supplier<SimilarWordsDictionary> factory;
+
+    public SimilarWordsDictionaryTest(String name, Supplier<SimilarWordsDictionary> factory) {
+        this.factory = factory;
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        SimilarWordsDictionary dictionary = factory.get();
+        assertTrue(dictionary.add("Test"));
+        assertFalse(dictionary.add("Test"));
+        assertTrue(dictionary.add("tseT"));
+        assertTrue(dictionary.add("TEST"));
+        assertEquals(3, dictionary.size());
+
+        assertTrue(dictionary.contains("tseT"));
+        assertFalse(dictionary.contains("test"));
+        assertFalse(dictionary.contains(null));
+
+        assertTrue(dictionary.remove("Test"));
+        assertFalse(dictionary.remove("Test"));
+        assertFalse(dictionary.remove(null));
+        assertFalse(dictionary.contains("Test"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyStringAdd() {
+        factory.get().add("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullAdd() {
+        factory.get().add(null);
+    }
+
+    /**
+     * Пример из {@link CustomDictionary#getSimilarWords(String)}: слова возвращаются в порядке добавления
+     */
+    @Test
+    public void testSimilarWordsOrder() {
+        SimilarWordsDictionary dictionary = factory.get();
+        dictionary.add("aaa");
+        dictionary.add("aBa");
+        dictionary.add("baa");
+        dictionary.add("aaB");
+
+        assertEquals(Arrays.asList("aBa", "baa", "aaB"), dictionary.getSimilarWords("AAb"));
+        assertEquals(Collections.singletonList("aaa"), dictionary.getSimilarWords("AAA"));
+        assertEquals(Collections.emptyList(), dictionary.getSimilarWords("aaaa"));
+        assertEquals(Collections.emptyList(), dictionary.getSimilarWords(null));
+    }
+
+    /**
+     * Удаленное и снова добавленное слово оказывается в конце, как в LinkedHashSet
+     */
+    @Test
+    public void testSimilarWordsOrderAfterRemove() {
+        SimilarWordsDictionary dictionary = factory.get();
+        dictionary.add("abc");
+        dictionary.add("bca");
+        dictionary.add("cab");
+        dictionary.add("CBA");
+
+        assertTrue(dictionary.remove("abc"));
+        assertEquals(Arrays.asList("bca", "cab", "CBA"), dictionary.getSimilarWords("abc"));
+        assertTrue(dictionary.remove("cab"));
+        assertEquals(Arrays.asList("bca", "CBA"), dictionary.getSimilarWords("abc"));
+        assertTrue(dictionary.add("abc"));
+        assertTrue(dictionary.add("cab"));
+        assertEquals(Arrays.asList("bca", "CBA", "abc", "cab"), dictionary.getSimilarWords("abc"));
+        assertEquals(4, dictionary.size());
+    }
+
+    @Test
+    public void testStrangeString() {
+        SimilarWordsDictionary dictionary = factory.get();
+        String first = new String(new char[]{0, 100, 0});
+        String second = new String(new char[]{100, 0, 0});
+        dictionary.add(first);
+        dictionary.add(second);
+
+        assertEquals(Arrays.asList(first, second), dictionary.getSimilarWords(new String(new char[]{0, 0, 100})));
+    }
+}
@@ -1,8 +1,18 @@
 package ru.mail.polis.homework.collections.structure;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Test;
 
 import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class ValidatorForParenthesesTest {
@@ -25,4 +35,151 @@ public class ValidatorForParenthesesTest {
         assertFalse(ValidatorForParentheses.validate(null));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testChunks() {
+        ValidatorForParentheses.Checker checker = new ValidatorForParentheses.Checker();
+        checker.feed("{{(").feed(")<").feed(">}").feed("}[]()<>");
+        assertTrue(checker.finish());
+        assertEquals(-1, checker.getMismatchOffset());
+    }
+
+    @Test
+    public void testMismatchOffset() {
+        ValidatorForParentheses.Checker checker = new ValidatorForParentheses.Checker();
+        checker.feed("a(b[c").feed(")]");
+        assertFalse(checker.finish());
+        assertEquals(5, checker.getMismatchOffset());
+
+        checker = new ValidatorForParentheses.Checker();
+        checker.feed("((x)");
+        assertFalse(checker.finish());
+        assertEquals(4, checker.getMismatchOffset());
+
+        checker = new ValidatorForParentheses.Checker();
+        checker.feed(">>>");
+        assertFalse(checker.finish());
+        assertEquals(0, checker.getMismatchOffset());
+    }
+
+    @Test
+    public void testReaderAndChannel() throws IOException {
+        String text = "Понедельник (начало {недели}) <ура>";
+        assertTrue(ValidatorForParentheses.validateStream(new StringReader(text)));
+        assertTrue(ValidatorForParentheses.validateStream(
+                Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)))));
+        assertFalse(ValidatorForParentheses.validateStream(new StringReader(text + "]")));
+        assertFalse(ValidatorForParentheses.validateStream(
+                Channels.newChannel(new ByteArrayInputStream((text + "(").getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    @Test
+    public void testParallelExamples() {
+        assertTrue(ValidatorForParentheses.validateParallel("{{()<>}}[]()<>"));
+        assertFalse(ValidatorForParentheses.validateParallel("([)]"));
+        assertFalse(ValidatorForParentheses.validateParallel(""));
+        assertFalse(ValidatorForParentheses.validateParallel("Понедельники меня угнетают"));
+        assertFalse(ValidatorForParentheses.validateParallel(null));
+    }
+
+    /**
+     * Случайные правильные строки, часть из которых испорчена одной заменой символа, проверяются
+     * последовательно и параллельно с маленькими кусками, чтобы объединений было много
+     */
+    @Test
+    public void testParallelSameAsSequential() {
+        Random random = new Random(42);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int valid = 0;
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder text = randomValid(random, random.nextInt(2_000));
+            if (random.nextBoolean() && text.length() > 0) {
+                text.setCharAt(random.nextInt(text.length()), "()[]{}<>x".charAt(random.nextInt(9)));
+            }
+            boolean expected = ValidatorForParentheses.validate(text.toString());
+            valid += expected ? 1 : 0;
+            for (int segmentSize : new int[]{1, 3, 16, 1 << 16}) {
+                assertEquals(text.toString(), expected,
+                        ValidatorForParentheses.validateParallel(text, pool, segmentSize));
+            }
+        }
+        pool.shutdown();
+        assertTrue(valid > 500 && valid < 1_800);
+
+        StringBuilder huge = randomValid(random, 3_000_000);
+        assertTrue(ValidatorForParentheses.validateParallel(huge));
+        huge.setCharAt(huge.indexOf(")"), ']');
+        assertFalse(ValidatorForParentheses.validateParallel(huge));
+    }
+
+    /**
+     * Правильная строка из length символов: скобки случайной вложенности вперемешку с буквами
+     */
+    private static StringBuilder randomValid(Random random, int length) {
+        String open = "([{<";
+        String close = ")]}>";
+        StringBuilder text = new StringBuilder(length);
+        StringBuilder stack = new StringBuilder();
+        while (text.length() + stack.length() < length) {
+            int action = random.nextInt(3);
+            if (action == 0) {
+                int type = random.nextInt(4);
+                text.append(open.charAt(type));
+                stack.append(close.charAt(type));
+            } else if (action == 1 && stack.length() > 0) {
+                text.append(stack.charAt(stack.length() - 1));
+                stack.setLength(stack.length() - 1);
+            } else {
+                text.append('x');
+            }
+        }
+        return text.append(stack.reverse());
+    }
+
+    /**
+     * Текст на 40 миллионов символов не создается целиком, а генерируется по ходу чтения
+     */
+    @Test
+    public void testHugeReader() throws IOException {
+        assertTrue(ValidatorForParentheses.validateStream(new NestedReader(20_000_000, false)));
+        assertFalse(ValidatorForParentheses.validateStream(new NestedReader(20_000_000, true)));
+    }
+
+    /**
+     * Отдает depth открывающих скобок "([{<" по кругу, а затем закрывающие в обратном порядке.
+     * Если broken, то последняя закрывающая скобка неправильная.
+     */
+    private static class NestedReader extends Reader {
+        private static final String OPEN = "([{<";
+        private static final String CLOSE = ")]}>";
+        private final long depth;
+        private final boolean broken;
+        private long position;
+
+        NestedReader(long depth, boolean broken) {
+            this.depth = depth;
+            this.broken = broken;
+        }
+
+        @Override
+        public int read(char[] buffer, int off, int len) {
+            if (position == 2 * depth) {
+                return -1;
+            }
+            int count = (int) Math.min(len, 2 * depth - position);
+            for (int i = 0; i < count; i++, position++) {
+                if (position < depth) {
+                    buffer[off + i] = OPEN.charAt((int) (position % 4));
+                } else if (broken && position == 2 * depth - 1) {
+                    buffer[off + i] = '>';
+                } else {
+                    buffer[off + i] = CLOSE.charAt((int) ((2 * depth - 1 - position) % 4));
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}